@@ -0,0 +1,252 @@
+package sorting;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link SortProbe} that counts compares, exchanges, writes and the maximum recursion depth of every sort,
+ * and emits them as one {@code sorting.Sort} JFR event per outermost sort call.
+ * <p>
+ * Counts are kept per thread, so concurrent sorts do not mix. The counts of the last sort finished on the
+ * current thread are available from {@link #lastSort()}. The work of the fork/join tasks of a parallel sort is
+ * counted per task on the thread running it, and added to the counts of the sort under its lock when the task
+ * finishes, so the counts of a parallel sort cover all threads.
+ */
+public class CountingProbe implements SortProbe {
+    private final ThreadLocal<Counts> current = ThreadLocal.withInitial(Counts::new);
+    private final ThreadLocal<Counts> last = new ThreadLocal<>();
+
+    /**
+     * Counts of one sort.
+     */
+    public static class Counts {
+        private String algorithm;
+        private String dispatched;
+        private int n;
+        private long compares;
+        private long exchanges;
+        private long writes;
+        private int depth;
+        private int maxDepth;
+        // number of sort entry points currently running on the thread
+        private int nesting;
+        private SortEvent event;
+
+        // for the counts of a fork/join task: the sort it works for, the counts of the thread it interrupted,
+        // and the number of tasks of that sort nested on the thread
+        private Counts sort;
+        private Counts interrupted;
+        private int tasks;
+
+        // counts of the finished tasks of this sort, guarded by this, added in when the sort finishes
+        private long taskCompares;
+        private long taskExchanges;
+        private long taskWrites;
+        private int taskMaxDepth;
+
+        public String algorithm() {
+            return algorithm;
+        }
+
+        /**
+         * Returns the sorter chosen by a dispatching entry point like {@link Sorts#sort(Comparable[])}.
+         *
+         * @return the name of the sorter, or null if the entry point does not dispatch
+         */
+        public String dispatched() {
+            return dispatched;
+        }
+
+        public int n() {
+            return n;
+        }
+
+        public long compares() {
+            return compares;
+        }
+
+        public long exchanges() {
+            return exchanges;
+        }
+
+        public long writes() {
+            return writes;
+        }
+
+        public int maxDepth() {
+            return maxDepth;
+        }
+
+        @Override
+        public String toString() {
+            return algorithm + (dispatched != null ? "->" + dispatched : "") + " n=" + n + " compares=" + compares + " exchanges=" + exchanges
+                    + " writes=" + writes + " maxDepth=" + maxDepth;
+        }
+    }
+
+    /**
+     * JFR event for one sort call.
+     */
+    @Name("sorting.Sort")
+    @Label("Sort")
+    @Category("Sorting")
+    @Description("One call to a sort entry point, with its operation counts")
+    static class SortEvent extends Event {
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Dispatched To")
+        String dispatched;
+
+        @Label("Items")
+        int items;
+
+        @Label("Compares")
+        long compares;
+
+        @Label("Exchanges")
+        long exchanges;
+
+        @Label("Writes")
+        long writes;
+
+        @Label("Max Recursion Depth")
+        int maxDepth;
+    }
+
+    /**
+     * Returns the counts of the last sort finished on the current thread.
+     *
+     * @return the counts, or null if no sort has finished on this thread
+     */
+    public Counts lastSort() {
+        return last.get();
+    }
+
+    @Override
+    public void sortStarted(String algorithm, int n) {
+        Counts c = current.get();
+        // a sort called from a fork/join task counts for the sort of the task
+        if (c.nesting++ > 0 || c.sort != null) {
+            return;
+        }
+        c.algorithm = algorithm;
+        c.dispatched = null;
+        c.n = n;
+        c.compares = 0;
+        c.exchanges = 0;
+        c.writes = 0;
+        c.depth = 0;
+        c.maxDepth = 0;
+        c.event = new SortEvent();
+        c.event.begin();
+    }
+
+    @Override
+    public void sortFinished(String algorithm, int n) {
+        Counts c = current.get();
+        if (c.nesting == 0 || --c.nesting > 0 || c.sort != null) {
+            return;
+        }
+        // a sorter that did not know n when it started reports it now
+        c.n = n;
+        synchronized (c) {
+            c.compares += c.taskCompares;
+            c.exchanges += c.taskExchanges;
+            c.writes += c.taskWrites;
+            c.maxDepth = Math.max(c.maxDepth, c.taskMaxDepth);
+        }
+        SortEvent event = c.event;
+        c.event = null;
+        event.end();
+        if (event.shouldCommit()) {
+            event.algorithm = c.algorithm;
+            event.dispatched = c.dispatched;
+            event.items = c.n;
+            event.compares = c.compares;
+            event.exchanges = c.exchanges;
+            event.writes = c.writes;
+            event.maxDepth = c.maxDepth;
+            event.commit();
+        }
+        // hand the finished counts over and start afresh for the next sort
+        last.set(c);
+        current.remove();
+    }
+
+    @Override
+    public void dispatched(String algorithm, int n) {
+        Counts c = current.get();
+        // only the outermost sort's choice is kept
+        if (c.nesting == 1) c.dispatched = algorithm;
+    }
+
+    @Override
+    public Object currentSort() {
+        Counts c = current.get();
+        if (c.sort != null) return c.sort;
+        return c.nesting > 0 ? c : null;
+    }
+
+    @Override
+    public void taskStarted(Object sort) {
+        if (!(sort instanceof Counts)) return;
+        Counts c = current.get();
+        // already counting for that sort on this thread
+        if (c == sort || c.sort == sort) {
+            c.tasks++;
+            return;
+        }
+        Counts task = new Counts();
+        task.sort = (Counts) sort;
+        task.interrupted = c;
+        task.tasks = 1;
+        current.set(task);
+    }
+
+    @Override
+    public void taskFinished(Object sort) {
+        if (!(sort instanceof Counts)) return;
+        Counts c = current.get();
+        if (--c.tasks > 0 || c.sort == null) {
+            return;
+        }
+        Counts s = c.sort;
+        synchronized (s) {
+            s.taskCompares += c.compares;
+            s.taskExchanges += c.exchanges;
+            s.taskWrites += c.writes;
+            s.taskMaxDepth = Math.max(s.taskMaxDepth, c.maxDepth);
+        }
+        current.set(c.interrupted);
+    }
+
+    @Override
+    public void compared() {
+        current.get().compares++;
+    }
+
+    @Override
+    public void exchanged() {
+        current.get().exchanges++;
+    }
+
+    @Override
+    public void wrote(int count) {
+        current.get().writes += count;
+    }
+
+    @Override
+    public void entered() {
+        Counts c = current.get();
+        if (++c.depth > c.maxDepth) c.maxDepth = c.depth;
+    }
+
+    @Override
+    public void exited() {
+        current.get().depth--;
+    }
+}
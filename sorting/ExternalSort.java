@@ -0,0 +1,294 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * External (out-of-core) merge sort for inputs that do not fit in memory.
+ * <p>
+ * The whitespace-separated strings of the input file are read in chunks of bounded size, each chunk is
+ * sorted in memory with {@link Quick3Way} and spilled to a temporary file as a sorted run, and the runs are
+ * then k-way merged through a {@link MinPriorityQueue} of run cursors. When there are more runs than the
+ * merge fan-in, groups of runs are merged into longer runs first, so the number of open files stays bounded.
+ * All files are read and written through buffered channel streams, one string per line.
+ */
+public class ExternalSort {
+    // estimated heap bytes taken by a string on top of its chars, including its slot in the chunk
+    private static final int STRING_OVERHEAD = 56;
+
+    // size of the read buffers, in chars
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // default memory budget of one sorted run, in bytes
+    public static final long DEFAULT_RUN_BYTES = 64L << 20;
+
+    // default number of runs merged at once
+    public static final int DEFAULT_FAN_IN = 64;
+
+    // This class should not be instantiated.
+    private ExternalSort() {
+    }
+
+    /**
+     * Sorts the whitespace-separated strings of the input file into the output file, one string per line,
+     * using the default run size and fan-in.
+     *
+     * @param input  file to be sorted
+     * @param output file receiving the sorted strings
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void sort(Path input, Path output) throws IOException {
+        sort(input, output, DEFAULT_RUN_BYTES, DEFAULT_FAN_IN);
+    }
+
+    /**
+     * Sorts the whitespace-separated strings of the input file into the output file, one string per line.
+     *
+     * @param input    file to be sorted
+     * @param output   file receiving the sorted strings
+     * @param runBytes estimated heap bytes of strings sorted in memory at once
+     * @param fanIn    maximum number of runs merged at once
+     * @throws IOException              if a file cannot be read or written
+     * @throws IllegalArgumentException if {@code runBytes < 1} or {@code fanIn < 2}
+     */
+    public static void sort(Path input, Path output, long runBytes, int fanIn) throws IOException {
+        if (runBytes < 1 || fanIn < 2) throw new IllegalArgumentException();
+        // the number of strings is only known once they have all been merged
+        if (SortProbes.ENABLED) SortProbes.sortStarted("ExternalSort.sort", -1);
+        long n = 0;
+        Path tmpDir = Files.createTempDirectory("external-sort");
+        Throwable failure = null;
+        try {
+            List<Path> runs = createRuns(input, tmpDir, runBytes);
+            // merge groups of runs into longer runs until a single merge can finish the job
+            while (runs.size() > fanIn) {
+                List<Path> merged = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    Path run = Files.createTempFile(tmpDir, "run", ".txt");
+                    merge(group, run);
+                    for (Path p : group) Files.delete(p);
+                    merged.add(run);
+                }
+                runs = merged;
+            }
+            n = merge(runs, output);
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            // also reported when the sort fails, so that the probe's sorts stay balanced on this thread
+            if (SortProbes.ENABLED) SortProbes.sortFinished("ExternalSort.sort", (int) Math.min(n, Integer.MAX_VALUE));
+            // a failed cleanup must not hide why the sort failed
+            try {
+                deleteTempDir(tmpDir);
+            } catch (IOException | UncheckedIOException e) {
+                if (failure == null) throw e;
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    // deletes the temporary directory and the run files left in it
+    private static void deleteTempDir(Path tmpDir) throws IOException {
+        try (Stream<Path> leftovers = Files.list(tmpDir)) {
+            for (Path p : (Iterable<Path>) leftovers::iterator) Files.deleteIfExists(p);
+        }
+        Files.deleteIfExists(tmpDir);
+    }
+
+    /***************************************************************************
+     *  Run creation.
+     ***************************************************************************/
+
+    /**
+     * Splits the input into sorted runs of at most about runBytes each.
+     *
+     * @return the run files, in input order
+     */
+    private static List<Path> createRuns(Path input, Path tmpDir, long runBytes) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try (Tokenizer tokens = new Tokenizer(new InputStreamReader(Files.newInputStream(input), StandardCharsets.UTF_8))) {
+            List<String> chunk = new ArrayList<>();
+            long bytes = 0;
+            for (String s = tokens.next(); s != null; s = tokens.next()) {
+                chunk.add(s);
+                bytes += STRING_OVERHEAD + 2L * s.length();
+                if (bytes >= runBytes) {
+                    runs.add(spill(chunk, tmpDir));
+                    chunk.clear();
+                    bytes = 0;
+                }
+            }
+            if (!chunk.isEmpty() || runs.isEmpty()) {
+                runs.add(spill(chunk, tmpDir));
+            }
+        }
+        return runs;
+    }
+
+    // sorts the chunk and writes it to a new run file
+    private static Path spill(List<String> chunk, Path tmpDir) throws IOException {
+        String[] a = chunk.toArray(new String[0]);
+        Quick3Way.sort(a);
+        Path run = Files.createTempFile(tmpDir, "run", ".txt");
+        try (BufferedWriter out = Files.newBufferedWriter(run, StandardCharsets.UTF_8)) {
+            for (String s : a) {
+                out.write(s);
+                out.write('\n');
+            }
+        }
+        if (SortProbes.ENABLED) SortProbes.wrote(a.length);
+        return run;
+    }
+
+    /**
+     * Splits a character stream into whitespace-separated strings, reading through its own buffer
+     * rather than one synchronized read() per char.
+     */
+    private static class Tokenizer implements AutoCloseable {
+        private final Reader in;
+        private final char[] buffer = new char[BUFFER_SIZE];
+        private final StringBuilder token = new StringBuilder();
+        private int position;
+        private int limit;
+
+        Tokenizer(Reader in) {
+            this.in = in;
+        }
+
+        // the next string, or null at the end of the stream
+        String next() throws IOException {
+            token.setLength(0);
+            while (true) {
+                if (position == limit) {
+                    limit = in.read(buffer);
+                    position = 0;
+                    if (limit <= 0) {
+                        limit = 0;
+                        return token.length() > 0 ? token.toString() : null;
+                    }
+                }
+                char c = buffer[position++];
+                if (!Character.isWhitespace(c)) {
+                    token.append(c);
+                } else if (token.length() > 0) {
+                    return token.toString();
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /***************************************************************************
+     *  K-way merge.
+     ***************************************************************************/
+
+    // merges the sorted runs into the output file, returns the number of strings written
+    private static long merge(List<Path> runs, Path output) throws IOException {
+        long written = 0;
+        List<RunCursor> cursors = new ArrayList<>(runs.size());
+        MinPriorityQueue<RunCursor> pq = new MinPriorityQueue<>(runs.size());
+        Throwable failure = null;
+        try (BufferedWriter out = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            for (Path run : runs) {
+                RunCursor cursor = new RunCursor(Files.newBufferedReader(run, StandardCharsets.UTF_8));
+                cursors.add(cursor);
+                if (cursor.advance()) pq.insert(cursor);
+            }
+            while (!pq.isEmpty()) {
+                RunCursor cursor = pq.removeMin();
+                out.write(cursor.current);
+                out.write('\n');
+                written++;
+                if (SortProbes.ENABLED) SortProbes.wrote(1);
+                if (cursor.advance()) pq.insert(cursor);
+            }
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            closeAll(cursors, failure);
+        }
+        return written;
+    }
+
+    /**
+     * Closes every cursor, even when some of them fail to close. Close failures are added as suppressed
+     * to the failure of the merge, if any; otherwise the first of them is thrown with the others suppressed.
+     */
+    private static void closeAll(List<RunCursor> cursors, Throwable failure) throws IOException {
+        IOException closeFailure = null;
+        for (RunCursor cursor : cursors) {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                if (failure != null) failure.addSuppressed(e);
+                else if (closeFailure == null) closeFailure = e;
+                else closeFailure.addSuppressed(e);
+            }
+        }
+        if (closeFailure != null) throw closeFailure;
+    }
+
+    /**
+     * Position in a sorted run file, ordered by the string under the cursor.
+     */
+    private static class RunCursor implements Comparable<RunCursor>, AutoCloseable {
+        private final BufferedReader reader;
+        private String current;
+
+        RunCursor(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        // moves to the next string of the run, returns false at the end of the run
+        boolean advance() throws IOException {
+            current = reader.readLine();
+            return current != null;
+        }
+
+        @Override
+        public int compareTo(RunCursor that) {
+            if (SortProbes.ENABLED) SortProbes.compared();
+            return current.compareTo(that.current);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * Sorts the whitespace-separated strings of the file args[0] into the file args[1], one string per line,
+     * keeping about args[2] megabytes of strings in memory at once (64 by default).
+     *
+     * @param args the command-line arguments
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        Path input = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        long runBytes = args.length > 2 ? Long.parseLong(args[2]) << 20 : DEFAULT_RUN_BYTES;
+        ExternalSort.sort(input, output, runBytes, DEFAULT_FAN_IN);
+        StdOut.println("sorted " + input + " into " + output);
+    }
+}
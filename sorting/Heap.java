@@ -3,6 +3,8 @@ package sorting;
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 
+import java.util.Comparator;
+
 @SuppressWarnings({"rawtypes", "unchecked"})
 public class Heap {
 
@@ -10,24 +12,229 @@ public class Heap {
     private Heap() {
     }
 
-    private static void heapify(Comparable[] array) {
-        int n = array.length;
+    private static void heapify(Comparable[] array, int offset, int n) {
         for (int i = rootOfLastHeap(n); i >= 1; i--) {
-            sink(array, i, n);
+            sink(array, offset, i, n);
         }
     }
 
-    private static void sortdown(Comparable[] array) {
-        int end = array.length;
+    private static void sortdown(Comparable[] array, int offset, int n) {
+        int end = n;
         while (end > 1) {
-            exch(array, 1, end--);
-            sink(array, 1, end);
+            exch(array, offset, 1, end--);
+            sink(array, offset, 1, end);
         }
     }
 
+    /**
+     * Rearranges the array in ascending order, using the natural order.
+     *
+     * @param array the array to be sorted
+     */
     public static void sort(Comparable[] array) {
-        heapify(array);
-        sortdown(array);
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order, using the natural order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(Comparable[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Heap.sort", to - from);
+        heapSort(array, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Heap.sort", to - from);
+    }
+
+    // heapsort array[from...to) without reporting a sort of its own, for the introsorts of this package
+    static void heapSort(Comparable[] array, int from, int to) {
+        // heap node k lives in array[offset + k]
+        int offset = from - 1;
+        heapify(array, offset, to - from);
+        sortdown(array, offset, to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using a comparator.
+     *
+     * @param array      the array to be sorted
+     * @param comparator the comparator specifying the order
+     */
+    public static void sort(Object[] array, Comparator comparator) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Heap.sort", n);
+        // heap node k lives in array[k - 1]
+        for (int i = rootOfLastHeap(n); i >= 1; i--) {
+            sink(array, comparator, -1, i, n);
+        }
+        int end = n;
+        while (end > 1) {
+            exch(array, -1, 1, end--);
+            sink(array, comparator, -1, 1, end);
+        }
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Heap.sort", n);
+    }
+
+    /***************************************************************************
+     *  Bottom-up and 4-ary heapsort.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and Floyd's bottom-up heapsort.
+     * Instead of comparing the sinking item against the larger child at every level, it walks down along
+     * the larger children to a leaf with one compare per level, then climbs back up to the item's place,
+     * which is almost always near the bottom. That takes about n log2(n) compares instead of 2 n log2(n).
+     *
+     * @param array the array to be sorted
+     */
+    public static void bottomUpSort(Comparable[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Heap.bottomUpSort", n);
+        for (int i = rootOfLastHeap(n); i >= 1; i--) {
+            siftDown(array, -1, i, n);
+        }
+        int end = n;
+        while (end > 1) {
+            exch(array, -1, 1, end--);
+            siftDown(array, -1, 1, end);
+        }
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Heap.bottomUpSort", n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and a 4-ary heap.
+     * Each node has four children stored next to each other, so the heap is half as deep as a binary one
+     * and each level down reads one or two cache lines instead of jumping to a far away pair of children.
+     *
+     * @param array the array to be sorted
+     */
+    public static void fourArySort(Comparable[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Heap.fourArySort", n);
+        for (int i = rootOfLastHeap4(n); i >= 1; i--) {
+            sink4(array, -1, i, n);
+        }
+        int end = n;
+        while (end > 1) {
+            exch(array, -1, 1, end--);
+            sink4(array, -1, 1, end);
+        }
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Heap.fourArySort", n);
+    }
+
+    /***************************************************************************
+     *  Primitive-specialized sorts.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Heap.sort", to - from);
+        int n = to - from;
+        // heap node k lives in array[offset + k]
+        int offset = from - 1;
+        for (int k = rootOfLastHeap(n); k >= 1; k--) {
+            sink(array, offset, k, n);
+        }
+        int end = n;
+        while (end > 1) {
+            exch(array, offset + 1, offset + end--);
+            sink(array, offset, 1, end);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Heap.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Heap.sort", to - from);
+        int n = to - from;
+        // heap node k lives in array[offset + k]
+        int offset = from - 1;
+        for (int k = rootOfLastHeap(n); k >= 1; k--) {
+            sink(array, offset, k, n);
+        }
+        int end = n;
+        while (end > 1) {
+            exch(array, offset + 1, offset + end--);
+            sink(array, offset, 1, end);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Heap.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Heap.sort", to - from);
+        int n = to - from;
+        // heap node k lives in array[offset + k]
+        int offset = from - 1;
+        for (int k = rootOfLastHeap(n); k >= 1; k--) {
+            sink(array, offset, k, n);
+        }
+        int end = n;
+        while (end > 1) {
+            exch(array, offset + 1, offset + end--);
+            sink(array, offset, 1, end);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Heap.sort", to - from);
     }
 
     /***************************************************************************
@@ -46,6 +253,19 @@ public class Heap {
         return n / 2;
     }
 
+    private static int parent(int i) {
+        return i / 2;
+    }
+
+    // in a 4-ary heap, the children of node i are nodes 4i - 2 to 4i + 1
+    private static int firstChild4(int i) {
+        return 4 * i - 2;
+    }
+
+    private static int rootOfLastHeap4(int n) {
+        return (n + 2) / 4;
+    }
+
     /***************************************************************************
      * Helper functions to restore heap invariant
      ***************************************************************************/
@@ -53,39 +273,270 @@ public class Heap {
     /**
      * When a parent's key is less than one or both of its children's keys
      *
-     * @param a heap array
-     * @param k parent node
-     * @param n length of the heap array
+     * @param a      heap array
+     * @param offset position of the heap in the array, node k is a[offset + k]
+     * @param k      parent node
+     * @param n      length of the heap array
      */
-    private static void sink(Comparable[] a, int k, int n) {
+    private static void sink(Comparable[] a, int offset, int k, int n) {
         while (leftChild(k) <= n) {
             int largerChild = leftChild(k);
-            if (rightChild(k) < n && less(a, largerChild, rightChild(k))) {
+            if (rightChild(k) <= n && less(a, offset, largerChild, rightChild(k))) {
                 largerChild = rightChild(k);
             }
-            if (!less(a, k, largerChild)) {
+            if (!less(a, offset, k, largerChild)) {
                 break;
             }
-            exch(a, k, largerChild);
+            exch(a, offset, k, largerChild);
+            k = largerChild;
+        }
+    }
+
+    /**
+     * Moves the item at node k down to its place in the subheap rooted at k, the bottom-up way: descend from k
+     * along the larger children to a leaf, climb back to the first node that is not less than the item,
+     * then put the item there and shift every node on the path above it up one level.
+     *
+     * @param a      heap array
+     * @param offset position of the heap in the array, node k is a[offset + k]
+     * @param k      root of the subheap
+     * @param n      size of the heap
+     */
+    private static void siftDown(Comparable[] a, int offset, int k, int n) {
+        int j = k;
+        while (rightChild(j) <= n) {
+            j = less(a, offset, leftChild(j), rightChild(j)) ? rightChild(j) : leftChild(j);
+        }
+        if (leftChild(j) <= n) {
+            j = leftChild(j);
+        }
+        while (j > k && less(a, offset, j, k)) {
+            j = parent(j);
+        }
+
+        Comparable carried = a[offset + j];
+        a[offset + j] = a[offset + k];
+        while (j > k) {
+            j = parent(j);
+            Comparable swap = a[offset + j];
+            a[offset + j] = carried;
+            carried = swap;
+            if (SortProbes.ENABLED) SortProbes.wrote(1);
+        }
+    }
+
+    /**
+     * 4-ary counterpart of {@link #sink(Comparable[], int, int, int)}: the item at node k is exchanged
+     * with the largest of its up to four children until none of them is larger.
+     *
+     * @param a      heap array
+     * @param offset position of the heap in the array, node k is a[offset + k]
+     * @param k      parent node
+     * @param n      size of the heap
+     */
+    private static void sink4(Comparable[] a, int offset, int k, int n) {
+        while (firstChild4(k) <= n) {
+            int first = firstChild4(k);
+            int last = Math.min(first + 3, n);
+            int largestChild = first;
+            for (int c = first + 1; c <= last; c++) {
+                if (less(a, offset, largestChild, c)) largestChild = c;
+            }
+            if (!less(a, offset, k, largestChild)) {
+                break;
+            }
+            exch(a, offset, k, largestChild);
+            k = largestChild;
+        }
+    }
+
+    /**
+     * Comparator counterpart of {@link #sink(Comparable[], int, int, int)}
+     *
+     * @param a          array holding the heap
+     * @param comparator the comparator specifying the order
+     * @param offset     position of the heap in the array, node k is a[offset + k]
+     * @param k          parent node
+     * @param n          size of the heap
+     */
+    private static void sink(Object[] a, Comparator comparator, int offset, int k, int n) {
+        while (leftChild(k) <= n) {
+            int largerChild = leftChild(k);
+            if (rightChild(k) <= n && less(comparator, a[offset + largerChild], a[offset + rightChild(k)])) {
+                largerChild = rightChild(k);
+            }
+            if (!less(comparator, a[offset + k], a[offset + largerChild])) {
+                break;
+            }
+            exch(a, offset, k, largerChild);
+            k = largerChild;
+        }
+    }
+
+    /**
+     * Primitive counterpart of {@link #sink(Comparable[], int, int, int)}
+     *
+     * @param a      array holding the heap
+     * @param offset position of the heap in the array, node k is a[offset + k]
+     * @param k      parent node
+     * @param n      size of the heap
+     */
+    private static void sink(int[] a, int offset, int k, int n) {
+        while (leftChild(k) <= n) {
+            int largerChild = leftChild(k);
+            if (rightChild(k) <= n && less(a[offset + largerChild], a[offset + rightChild(k)])) {
+                largerChild = rightChild(k);
+            }
+            if (!less(a[offset + k], a[offset + largerChild])) {
+                break;
+            }
+            exch(a, offset + k, offset + largerChild);
+            k = largerChild;
+        }
+    }
+
+    /**
+     * Primitive counterpart of {@link #sink(Comparable[], int, int, int)}
+     *
+     * @param a      array holding the heap
+     * @param offset position of the heap in the array, node k is a[offset + k]
+     * @param k      parent node
+     * @param n      size of the heap
+     */
+    private static void sink(long[] a, int offset, int k, int n) {
+        while (leftChild(k) <= n) {
+            int largerChild = leftChild(k);
+            if (rightChild(k) <= n && less(a[offset + largerChild], a[offset + rightChild(k)])) {
+                largerChild = rightChild(k);
+            }
+            if (!less(a[offset + k], a[offset + largerChild])) {
+                break;
+            }
+            exch(a, offset + k, offset + largerChild);
+            k = largerChild;
+        }
+    }
+
+    /**
+     * Primitive counterpart of {@link #sink(Comparable[], int, int, int)}
+     *
+     * @param a      array holding the heap
+     * @param offset position of the heap in the array, node k is a[offset + k]
+     * @param k      parent node
+     * @param n      size of the heap
+     */
+    private static void sink(double[] a, int offset, int k, int n) {
+        while (leftChild(k) <= n) {
+            int largerChild = leftChild(k);
+            if (rightChild(k) <= n && less(a[offset + largerChild], a[offset + rightChild(k)])) {
+                largerChild = rightChild(k);
+            }
+            if (!less(a[offset + k], a[offset + largerChild])) {
+                break;
+            }
+            exch(a, offset + k, offset + largerChild);
             k = largerChild;
         }
     }
 
     /***************************************************************************
-     *  Helper sorting functions, with off-by-one support
+     *  Helper sorting functions, with heap node to array index support
      ***************************************************************************/
 
     // is v < w ?
-    private static boolean less(Comparable[] a, int v, int w) {
-        return a[v - 1].compareTo(a[w - 1]) < 0;
+    private static boolean less(Comparable[] a, int offset, int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return a[offset + v].compareTo(a[offset + w]) < 0;
+    }
+
+    // is v < w ?
+    private static boolean less(Comparator comparator, Object v, Object w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return comparator.compare(v, w) < 0;
     }
 
 
     // exchange a[i] and a[j]
-    private static void exch(Object[] a, int i, int j) {
-        Object swap = a[i - 1];
-        a[i - 1] = a[j - 1];
-        a[j - 1] = swap;
+    private static void exch(Object[] a, int offset, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        Object swap = a[offset + i];
+        a[offset + i] = a[offset + j];
+        a[offset + j] = swap;
+    }
+
+    // is v < w ?
+    private static boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return Double.compare(v, w) < 0;
+    }
+
+    // exchange a[i] and a[j], no heap node adjustment
+    private static void exch(int[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        int swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j], no heap node adjustment
+    private static void exch(long[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        long swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j], no heap node adjustment
+    private static void exch(double[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // is array[from...to) a valid subarray of an array of the given length?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
+    }
+
+    // is the array a[] sorted?
+    private static boolean isSorted(Comparable[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i].compareTo(a[i - 1]) < 0) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
     }
 
     // print array to standard output
@@ -18,6 +18,7 @@ public class Insertion {
      */
     public static void sort(Comparable[] array) {
         int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Insertion.sort", n);
         for (int i = 0; i < n; i++) {
             // exchange array[i] with each larger entry on the left
             for (int j = i; j > 0; j--) {
@@ -30,6 +31,7 @@ public class Insertion {
             assert isSorted(array, 0, i);
         }
         assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Insertion.sort", n);
     }
 
     /**
@@ -40,6 +42,7 @@ public class Insertion {
      */
     public static void sort(Comparable[] array, Comparator comparator) {
         int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Insertion.sort", n);
         for (int i = 0; i < n; i++) {
             for (int j = i; j > 0; j--) {
                 // exchange array[i] with each larger entry on the left
@@ -52,6 +55,116 @@ public class Insertion {
             assert isSorted(array, comparator, 0, i);
         }
         assert isSorted(array, comparator);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Insertion.sort", n);
+    }
+
+    /***************************************************************************
+     *  Primitive-specialized sorts.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Insertion.sort", to - from);
+        for (int i = from + 1; i < to; i++) {
+            // shift each larger entry on the left one position right, then drop array[i] into the gap
+            int item = array[i];
+            int j = i;
+            while (j > from && less(item, array[j - 1])) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = item;
+            if (SortProbes.ENABLED) SortProbes.wrote(i - j + 1);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Insertion.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Insertion.sort", to - from);
+        for (int i = from + 1; i < to; i++) {
+            // shift each larger entry on the left one position right, then drop array[i] into the gap
+            long item = array[i];
+            int j = i;
+            while (j > from && less(item, array[j - 1])) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = item;
+            if (SortProbes.ENABLED) SortProbes.wrote(i - j + 1);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Insertion.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Insertion.sort", to - from);
+        for (int i = from + 1; i < to; i++) {
+            // shift each larger entry on the left one position right, then drop array[i] into the gap
+            double item = array[i];
+            int j = i;
+            while (j > from && less(item, array[j - 1])) {
+                array[j] = array[j - 1];
+                j--;
+            }
+            array[j] = item;
+            if (SortProbes.ENABLED) SortProbes.wrote(i - j + 1);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Insertion.sort", to - from);
     }
 
     /***************************************************************************
@@ -60,22 +173,48 @@ public class Insertion {
 
     // is v < w ?
     private static boolean less(Comparable v, Comparable w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
         return v.compareTo(w) < 0;
     }
 
     // is v < w ?
     private static boolean less(Comparator comparator, Object v, Object w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
         return comparator.compare(v, w) < 0;
     }
 
 
     // exchange a[i] and a[j]
     private static void exch(Object[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
         Object swap = a[i];
         a[i] = a[j];
         a[j] = swap;
     }
 
+    // is v < w ?
+    private static boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return Double.compare(v, w) < 0;
+    }
+
+    // is array[from...to) a valid subarray of an array of the given length?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
+    }
+
     /***************************************************************************
      *  Check if array is sorted - useful for debugging.
      ***************************************************************************/
@@ -104,6 +243,27 @@ public class Insertion {
         return true;
     }
 
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
     // print array to standard output
     private static void show(Comparable[] a) {
         for (Comparable objectComparable : a) {
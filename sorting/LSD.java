@@ -0,0 +1,435 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Least-significant-digit first radix sort for strings of the same length and for int and long keys.
+ * Makes one stable key-indexed counting pass per character (or digit) from the last one to the first,
+ * so each character is inspected a constant number of times and no two keys are ever compared.
+ * String characters must be extended ASCII (less than 256).
+ */
+public class LSD {
+    // extended ASCII alphabet size
+    private static final int R = 256;
+
+    // bits per digit of int and long keys: 4 passes for int, 6 for long
+    private static final int INT_BITS = 8;
+    private static final int LONG_BITS = 11;
+
+    // arrays of at most this many keys are insertion sorted
+    private static final int INSERTION_CUTOFF = 64;
+
+    // minimum number of keys per parallel block
+    private static final int MIN_BLOCK = 1 << 16;
+
+    // This class should not be instantiated.
+    private LSD() {
+    }
+
+    /**
+     * Rearranges the array of equal-length strings in ascending order.
+     *
+     * @param array the array to be sorted
+     * @throws IllegalArgumentException if the strings do not all have the same length,
+     *                                  or if a character is not extended ASCII;
+     *                                  the array is then left unchanged
+     */
+    public static void sort(String[] array) {
+        if (array.length == 0) {
+            return;
+        }
+        sort(array, array[0].length());
+    }
+
+    /**
+     * Rearranges the array of strings of length w in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param w     the length of every string
+     * @throws IllegalArgumentException if a string does not have length w,
+     *                                  or if a character is not extended ASCII;
+     *                                  the array is then left unchanged
+     */
+    public static void sort(String[] array, int w) {
+        int n = array.length;
+        // every string is checked before the first pass moves anything
+        for (String s : array) {
+            if (s.length() != w) throw new IllegalArgumentException("strings must all have length " + w);
+            checkAlphabet(s);
+        }
+        if (SortProbes.ENABLED) SortProbes.sortStarted("LSD.sort", n);
+        String[] aux = new String[n];
+
+        // key-indexed counting on the d-th character, for d = w-1 down to 0
+        for (int d = w - 1; d >= 0; d--) {
+            int[] count = new int[R + 1];
+            for (int i = 0; i < n; i++) {
+                count[charAt(array[i], d) + 1]++;
+            }
+            for (int r = 0; r < R; r++) {
+                count[r + 1] += count[r];
+            }
+            for (int i = 0; i < n; i++) {
+                aux[count[charAt(array[i], d)]++] = array[i];
+            }
+            System.arraycopy(aux, 0, array, 0, n);
+            if (SortProbes.ENABLED) SortProbes.wrote(2 * n);
+        }
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("LSD.sort", n);
+    }
+
+    /***************************************************************************
+     *  Parallel radix sort for int and long keys.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order, using all cores of the common fork/join pool.
+     *
+     * @param keys the array to be sorted
+     */
+    public static void parallelSort(int[] keys) {
+        parallelSort(keys, null);
+    }
+
+    /**
+     * Rearranges the keys in ascending order and applies the same permutation to the payload,
+     * using all cores of the common fork/join pool. The sort is stable.
+     * <p>
+     * Makes one pass per 8-bit digit: every block of the array counts its digits in its own histogram,
+     * a prefix sum over (digit, block) turns the histograms into write offsets, and every block scatters
+     * its keys to those offsets. Passes on a digit shared by all keys are skipped.
+     *
+     * @param keys    the array to be sorted
+     * @param payload values moved along with the keys, or null
+     * @throws IllegalArgumentException if the payload is not as long as the keys
+     */
+    public static void parallelSort(int[] keys, int[] payload) {
+        int n = keys.length;
+        if (payload != null && payload.length != n) throw new IllegalArgumentException();
+        if (SortProbes.ENABLED) SortProbes.sortStarted("LSD.parallelSort", n);
+        Object sort = SortProbes.ENABLED ? SortProbes.currentSort() : null;
+        if (n <= INSERTION_CUTOFF) {
+            if (payload == null) Insertion.sort(keys);
+            else insertion(keys, payload);
+            if (SortProbes.ENABLED) SortProbes.sortFinished("LSD.parallelSort", n);
+            return;
+        }
+
+        int[][] count = new int[blocks(n)][1 << INT_BITS];
+        int[] src = keys;
+        int[] dst = new int[n];
+        int[] srcPayload = payload;
+        int[] dstPayload = payload == null ? null : new int[n];
+        for (int shift = 0; shift < Integer.SIZE; shift += INT_BITS) {
+            if (pass(sort, src, dst, srcPayload, dstPayload, shift, count)) {
+                int[] swap = src;
+                src = dst;
+                dst = swap;
+                swap = srcPayload;
+                srcPayload = dstPayload;
+                dstPayload = swap;
+            }
+        }
+        if (src != keys) {
+            System.arraycopy(src, 0, keys, 0, n);
+            if (payload != null) System.arraycopy(srcPayload, 0, payload, 0, n);
+            if (SortProbes.ENABLED) SortProbes.wrote(n);
+        }
+        assert isSorted(keys);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("LSD.parallelSort", n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using all cores of the common fork/join pool.
+     *
+     * @param keys the array to be sorted
+     */
+    public static void parallelSort(long[] keys) {
+        parallelSort(keys, null);
+    }
+
+    /**
+     * Rearranges the keys in ascending order and applies the same permutation to the payload,
+     * using all cores of the common fork/join pool. The sort is stable.
+     * Same as {@link #parallelSort(int[], int[])}, with 11-bit digits so that 64-bit keys take 6 passes.
+     *
+     * @param keys    the array to be sorted
+     * @param payload values moved along with the keys, or null
+     * @throws IllegalArgumentException if the payload is not as long as the keys
+     */
+    public static void parallelSort(long[] keys, int[] payload) {
+        int n = keys.length;
+        if (payload != null && payload.length != n) throw new IllegalArgumentException();
+        if (SortProbes.ENABLED) SortProbes.sortStarted("LSD.parallelSort", n);
+        Object sort = SortProbes.ENABLED ? SortProbes.currentSort() : null;
+        if (n <= INSERTION_CUTOFF) {
+            if (payload == null) Insertion.sort(keys);
+            else insertion(keys, payload);
+            if (SortProbes.ENABLED) SortProbes.sortFinished("LSD.parallelSort", n);
+            return;
+        }
+
+        int[][] count = new int[blocks(n)][1 << LONG_BITS];
+        long[] src = keys;
+        long[] dst = new long[n];
+        int[] srcPayload = payload;
+        int[] dstPayload = payload == null ? null : new int[n];
+        for (int shift = 0; shift < Long.SIZE; shift += LONG_BITS) {
+            if (pass(sort, src, dst, srcPayload, dstPayload, shift, count)) {
+                long[] swap = src;
+                src = dst;
+                dst = swap;
+                int[] swapPayload = srcPayload;
+                srcPayload = dstPayload;
+                dstPayload = swapPayload;
+            }
+        }
+        if (src != keys) {
+            System.arraycopy(src, 0, keys, 0, n);
+            if (payload != null) System.arraycopy(srcPayload, 0, payload, 0, n);
+            if (SortProbes.ENABLED) SortProbes.wrote(n);
+        }
+        assert isSorted(keys);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("LSD.parallelSort", n);
+    }
+
+    /**
+     * Stably scatters src into dst by the digit at the given shift, one block of the array per task.
+     *
+     * @param sort  handle of the sort for the probe, or null
+     * @param count one histogram per block, reused across passes
+     * @return false, leaving dst untouched, if all keys share that digit
+     */
+    private static boolean pass(Object sort, int[] src, int[] dst, int[] srcPayload, int[] dstPayload, int shift, int[][] count) {
+        int n = src.length;
+        int blocks = count.length;
+        forEachBlock(sort, blocks, b -> {
+            int[] histogram = count[b];
+            Arrays.fill(histogram, 0);
+            for (int i = blockStart(n, blocks, b); i < blockStart(n, blocks, b + 1); i++) {
+                histogram[digit(src[i], shift)]++;
+            }
+        });
+        if (!toOffsets(count, n)) {
+            return false;
+        }
+        forEachBlock(sort, blocks, b -> {
+            int[] offset = count[b];
+            for (int i = blockStart(n, blocks, b); i < blockStart(n, blocks, b + 1); i++) {
+                int k = offset[digit(src[i], shift)]++;
+                dst[k] = src[i];
+                if (srcPayload != null) dstPayload[k] = srcPayload[i];
+            }
+            if (SortProbes.ENABLED) SortProbes.wrote(blockStart(n, blocks, b + 1) - blockStart(n, blocks, b));
+        });
+        return true;
+    }
+
+    // long counterpart of pass(Object, int[], ...)
+    private static boolean pass(Object sort, long[] src, long[] dst, int[] srcPayload, int[] dstPayload, int shift, int[][] count) {
+        int n = src.length;
+        int blocks = count.length;
+        forEachBlock(sort, blocks, b -> {
+            int[] histogram = count[b];
+            Arrays.fill(histogram, 0);
+            for (int i = blockStart(n, blocks, b); i < blockStart(n, blocks, b + 1); i++) {
+                histogram[digit(src[i], shift)]++;
+            }
+        });
+        if (!toOffsets(count, n)) {
+            return false;
+        }
+        forEachBlock(sort, blocks, b -> {
+            int[] offset = count[b];
+            for (int i = blockStart(n, blocks, b); i < blockStart(n, blocks, b + 1); i++) {
+                int k = offset[digit(src[i], shift)]++;
+                dst[k] = src[i];
+                if (srcPayload != null) dstPayload[k] = srcPayload[i];
+            }
+            if (SortProbes.ENABLED) SortProbes.wrote(blockStart(n, blocks, b + 1) - blockStart(n, blocks, b));
+        });
+        return true;
+    }
+
+    /**
+     * Turns the per-block digit counts into the index where each block writes its first key with each digit.
+     * Offsets are taken digit by digit and, within a digit, block by block, which keeps the scatter stable.
+     *
+     * @return false, leaving the counts untouched, if all n keys share the same digit
+     */
+    private static boolean toOffsets(int[][] count, int n) {
+        int radix = count[0].length;
+        for (int d = 0; d < radix; d++) {
+            int total = 0;
+            for (int[] histogram : count) total += histogram[d];
+            if (total == n) return false;
+            if (total != 0) break;
+        }
+        int offset = 0;
+        for (int d = 0; d < radix; d++) {
+            for (int[] histogram : count) {
+                int c = histogram[d];
+                histogram[d] = offset;
+                offset += c;
+            }
+        }
+        return true;
+    }
+
+    // digit of the key at the given shift, with the sign bit flipped so that negative keys come first
+    private static int digit(int key, int shift) {
+        return ((key ^ Integer.MIN_VALUE) >>> shift) & ((1 << INT_BITS) - 1);
+    }
+
+    // digit of the key at the given shift, with the sign bit flipped so that negative keys come first
+    private static int digit(long key, int shift) {
+        return (int) ((key ^ Long.MIN_VALUE) >>> shift) & ((1 << LONG_BITS) - 1);
+    }
+
+    // number of blocks to split n keys in: one per core, each at least MIN_BLOCK long
+    private static int blocks(int n) {
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        return Math.max(1, Math.min(parallelism, n / MIN_BLOCK));
+    }
+
+    // index of the first key of block b
+    private static int blockStart(int n, int blocks, int b) {
+        return (int) ((long) n * b / blocks);
+    }
+
+    // runs body for every block, in parallel when there are several,
+    // counting the work of the tasks for the given sort of the probe
+    private static void forEachBlock(Object sort, int blocks, IntConsumer body) {
+        if (blocks == 1) {
+            body.accept(0);
+            return;
+        }
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int block = b;
+            tasks[b] = ForkJoinTask.adapt(() -> {
+                if (SortProbes.ENABLED) SortProbes.taskStarted(sort);
+                try {
+                    body.accept(block);
+                } finally {
+                    if (SortProbes.ENABLED) SortProbes.taskFinished(sort);
+                }
+            });
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    // insertion sort the keys, moving the payload along
+    private static void insertion(int[] keys, int[] payload) {
+        for (int i = 1; i < keys.length; i++) {
+            int key = keys[i];
+            int value = payload[i];
+            int j = i;
+            while (j > 0 && less(key, keys[j - 1])) {
+                keys[j] = keys[j - 1];
+                payload[j] = payload[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            payload[j] = value;
+            if (SortProbes.ENABLED) SortProbes.wrote(i - j + 1);
+        }
+    }
+
+    // insertion sort the keys, moving the payload along
+    private static void insertion(long[] keys, int[] payload) {
+        for (int i = 1; i < keys.length; i++) {
+            long key = keys[i];
+            int value = payload[i];
+            int j = i;
+            while (j > 0 && less(key, keys[j - 1])) {
+                keys[j] = keys[j - 1];
+                payload[j] = payload[j - 1];
+                j--;
+            }
+            keys[j] = key;
+            payload[j] = value;
+            if (SortProbes.ENABLED) SortProbes.wrote(i - j + 1);
+        }
+    }
+
+    /***************************************************************************
+     *  Helper sorting functions.
+     ***************************************************************************/
+
+    // is v < w ?
+    private static boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // d-th character of s, which must be extended ASCII
+    private static int charAt(String s, int d) {
+        return s.charAt(d);
+    }
+
+    // throw unless every character of s is extended ASCII
+    private static void checkAlphabet(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= R) throw new IllegalArgumentException("not an extended ASCII character: " + c);
+        }
+    }
+
+    /***************************************************************************
+     *  Check if array is sorted - useful for debugging.
+     ***************************************************************************/
+
+    // is the array a[] sorted?
+    private static boolean isSorted(String[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i].compareTo(a[i - 1]) < 0) return false;
+        return true;
+    }
+
+    // is the array a[] sorted?
+    private static boolean isSorted(int[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i] < a[i - 1]) return false;
+        return true;
+    }
+
+    // is the array a[] sorted?
+    private static boolean isSorted(long[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i] < a[i - 1]) return false;
+        return true;
+    }
+
+    // print array to standard output
+    private static void show(String[] a) {
+        for (String s : a) {
+            StdOut.println(s);
+        }
+    }
+
+    /**
+     * Reads in a sequence of equal-length strings from standard input; LSD radix sorts them;
+     * and prints them to standard output in ascending order.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        String[] a = StdIn.readAllStrings();
+        LSD.sort(a);
+        LSD.show(a);
+    }
+}
@@ -0,0 +1,287 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Lazy k-way merge of sorted sources with a tournament tree of losers.
+ * <p>
+ * Each internal node of the tree holds the source that lost the match played there, and the overall winner
+ * is kept apart; after the winner's key is returned and its source advanced, only the matches on the path
+ * from that source's leaf to the root are replayed, which takes ceil(log2(k)) compares per key and, unlike a
+ * binary heap, never compares the two children of a node against each other. Equal keys come out in source
+ * order, so merging the runs of a stable sort in order keeps it stable. No memory is allocated per key.
+ * <p>
+ * {@link OfInt} and {@link OfLong} merge primitive cursors the same way without boxing.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class LoserTree<Key> implements Iterator<Key> {
+    private final Iterator<? extends Key>[] sources;
+    private final Comparator<? super Key> comparator;
+    // current key of each source, null once the source is exhausted
+    private final Key[] heads;
+    private final boolean[] exhausted;
+    // tree[p] is the loser of the match at internal node p, tree[0] the overall winner
+    private final int[] tree;
+    private final Match match = this::beats;
+
+    /**
+     * Initializes a merge of the sources, each sorted in natural order.
+     *
+     * @param sources the sorted sources
+     */
+    public LoserTree(List<? extends Iterator<? extends Key>> sources) {
+        this(sources, null);
+    }
+
+    /**
+     * Initializes a merge of the sources, each sorted in the order of the comparator.
+     *
+     * @param sources    the sorted sources
+     * @param comparator the comparator specifying the order, or null for the natural order
+     */
+    public LoserTree(List<? extends Iterator<? extends Key>> sources, Comparator<? super Key> comparator) {
+        int k = sources.size();
+        this.sources = sources.toArray(new Iterator[0]);
+        this.comparator = comparator;
+        this.heads = (Key[]) new Object[k];
+        this.exhausted = new boolean[k];
+        for (int i = 0; i < k; i++) {
+            advance(i);
+        }
+        this.tree = build(k, match);
+    }
+
+    /**
+     * Returns the merge of the sorted iterables, in natural order.
+     *
+     * @param sources the sorted iterables
+     * @return an iterator over the keys of all the iterables, in ascending order
+     */
+    public static <Key extends Comparable<? super Key>> LoserTree<Key> merge(Iterable<? extends Iterable<? extends Key>> sources) {
+        List<Iterator<? extends Key>> iterators = new ArrayList<>();
+        for (Iterable<? extends Key> source : sources) {
+            iterators.add(source.iterator());
+        }
+        return new LoserTree<>(iterators);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return tree.length > 0 && !exhausted[tree[0]];
+    }
+
+    @Override
+    public Key next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        int winner = tree[0];
+        Key key = heads[winner];
+        advance(winner);
+        replay(tree, winner, match);
+        return key;
+    }
+
+    // move source i to its next key
+    private void advance(int i) {
+        if (sources[i].hasNext()) {
+            heads[i] = sources[i].next();
+        } else {
+            heads[i] = null;
+            exhausted[i] = true;
+        }
+    }
+
+    // does source a win against source b? an exhausted source loses to any other, ties go to the lower index
+    private boolean beats(int a, int b) {
+        if (exhausted[a] || exhausted[b]) return !exhausted[a] || exhausted[b] && a < b;
+        if (SortProbes.ENABLED) SortProbes.compared();
+        int cmp = comparator == null ? ((Comparable<? super Key>) heads[a]).compareTo(heads[b]) : comparator.compare(heads[a], heads[b]);
+        return cmp < 0 || cmp == 0 && a < b;
+    }
+
+    /***************************************************************************
+     *  Tournament tree, shared by the object and primitive merges.
+     ***************************************************************************/
+
+    // the match between two sources
+    private interface Match {
+        boolean beats(int a, int b);
+    }
+
+    /**
+     * Plays the whole tournament between k sources. Source i sits at leaf k + i, so that node p has
+     * children 2p and 2p + 1 and the parent of the leaf of source i is (k + i) / 2.
+     *
+     * @return the tree of losers, with the overall winner at index 0
+     */
+    private static int[] build(int k, Match match) {
+        int[] tree = new int[k];
+        if (k == 0) return tree;
+        int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++) {
+            winners[k + i] = i;
+        }
+        for (int p = k - 1; p >= 1; p--) {
+            int a = winners[2 * p];
+            int b = winners[2 * p + 1];
+            if (match.beats(b, a)) {
+                winners[p] = b;
+                tree[p] = a;
+            } else {
+                winners[p] = a;
+                tree[p] = b;
+            }
+        }
+        tree[0] = winners[1];
+        return tree;
+    }
+
+    // replays the matches from the leaf of source s up to the root, after s moved to its next key
+    private static void replay(int[] tree, int s, Match match) {
+        int winner = s;
+        for (int p = (tree.length + s) / 2; p >= 1; p /= 2) {
+            if (match.beats(tree[p], winner)) {
+                int swap = tree[p];
+                tree[p] = winner;
+                winner = swap;
+            }
+        }
+        tree[0] = winner;
+    }
+
+    /***************************************************************************
+     *  Primitive merges.
+     ***************************************************************************/
+
+    /**
+     * Lazy k-way merge of sorted int cursors, in ascending order.
+     */
+    public static class OfInt implements PrimitiveIterator.OfInt {
+        private final PrimitiveIterator.OfInt[] sources;
+        private final int[] heads;
+        private final boolean[] exhausted;
+        private final int[] tree;
+        private final Match match = this::beats;
+
+        /**
+         * Initializes a merge of the sources, each sorted in ascending order.
+         *
+         * @param sources the sorted sources
+         */
+        public OfInt(List<? extends PrimitiveIterator.OfInt> sources) {
+            int k = sources.size();
+            this.sources = sources.toArray(new PrimitiveIterator.OfInt[0]);
+            this.heads = new int[k];
+            this.exhausted = new boolean[k];
+            for (int i = 0; i < k; i++) {
+                advance(i);
+            }
+            this.tree = build(k, match);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return tree.length > 0 && !exhausted[tree[0]];
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int winner = tree[0];
+            int key = heads[winner];
+            advance(winner);
+            replay(tree, winner, match);
+            return key;
+        }
+
+        private void advance(int i) {
+            if (sources[i].hasNext()) heads[i] = sources[i].nextInt();
+            else exhausted[i] = true;
+        }
+
+        private boolean beats(int a, int b) {
+            if (exhausted[a] || exhausted[b]) return !exhausted[a] || exhausted[b] && a < b;
+            return heads[a] < heads[b] || heads[a] == heads[b] && a < b;
+        }
+    }
+
+    /**
+     * Lazy k-way merge of sorted long cursors, in ascending order.
+     */
+    public static class OfLong implements PrimitiveIterator.OfLong {
+        private final PrimitiveIterator.OfLong[] sources;
+        private final long[] heads;
+        private final boolean[] exhausted;
+        private final int[] tree;
+        private final Match match = this::beats;
+
+        /**
+         * Initializes a merge of the sources, each sorted in ascending order.
+         *
+         * @param sources the sorted sources
+         */
+        public OfLong(List<? extends PrimitiveIterator.OfLong> sources) {
+            int k = sources.size();
+            this.sources = sources.toArray(new PrimitiveIterator.OfLong[0]);
+            this.heads = new long[k];
+            this.exhausted = new boolean[k];
+            for (int i = 0; i < k; i++) {
+                advance(i);
+            }
+            this.tree = build(k, match);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return tree.length > 0 && !exhausted[tree[0]];
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            int winner = tree[0];
+            long key = heads[winner];
+            advance(winner);
+            replay(tree, winner, match);
+            return key;
+        }
+
+        private void advance(int i) {
+            if (sources[i].hasNext()) heads[i] = sources[i].nextLong();
+            else exhausted[i] = true;
+        }
+
+        private boolean beats(int a, int b) {
+            if (exhausted[a] || exhausted[b]) return !exhausted[a] || exhausted[b] && a < b;
+            return heads[a] < heads[b] || heads[a] == heads[b] && a < b;
+        }
+    }
+
+    /**
+     * Reads the sorted files named on the command line, one string per line,
+     * and prints their merge to standard output.
+     *
+     * @param args the command-line arguments
+     * @throws IOException if a file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        List<Iterator<String>> sources = new ArrayList<>();
+        for (String name : args) {
+            sources.add(Files.readAllLines(Paths.get(name), StandardCharsets.UTF_8).iterator());
+        }
+        LoserTree<String> merged = new LoserTree<>(sources);
+        while (merged.hasNext()) {
+            StdOut.println(merged.next());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Most-significant-digit first radix sort for strings.
+ * Partitions the strings on their d-th character with key-indexed counting and recurses on each
+ * partition with d + 1, so a shared prefix is inspected once per string instead of once per compare.
+ * Small partitions are insertion sorted starting from the d-th character.
+ * Characters must be extended ASCII (less than 256).
+ */
+public class MSD {
+    // extended ASCII alphabet size
+    private static final int R = 256;
+
+    // cutoff to insertion sort
+    private static final int CUTOFF = 15;
+
+    // This class should not be instantiated.
+    private MSD() {
+    }
+
+    /**
+     * Rearranges the array of strings in ascending order.
+     *
+     * @param array the array to be sorted
+     * @throws IllegalArgumentException if a character is not extended ASCII; the array is then left unchanged
+     */
+    public static void sort(String[] array) {
+        int n = array.length;
+        // every string is checked before anything is moved
+        for (String s : array) {
+            checkAlphabet(s);
+        }
+        if (SortProbes.ENABLED) SortProbes.sortStarted("MSD.sort", n);
+        String[] aux = new String[n];
+        sort(array, 0, n - 1, 0, aux);
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("MSD.sort", n);
+    }
+
+    // sort array[lo...hi], all of which share their first d characters
+    private static void sort(String[] array, int lo, int hi, int d, String[] aux) {
+        if (hi <= lo + CUTOFF) {
+            insertion(array, lo, hi, d);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+
+        // count[r + 2] is the number of strings whose d-th character is r, strings that end at d count as -1
+        int[] count = new int[R + 2];
+        for (int i = lo; i <= hi; i++) {
+            count[charAt(array[i], d) + 2]++;
+        }
+        for (int r = 0; r < R + 1; r++) {
+            count[r + 1] += count[r];
+        }
+        for (int i = lo; i <= hi; i++) {
+            aux[count[charAt(array[i], d) + 1]++] = array[i];
+        }
+        System.arraycopy(aux, 0, array, lo, hi - lo + 1);
+        if (SortProbes.ENABLED) SortProbes.wrote(2 * (hi - lo + 1));
+
+        // recursively sort each character's partition, strings that ended at d are already in place
+        for (int r = 0; r < R; r++) {
+            sort(array, lo + count[r], lo + count[r + 1] - 1, d + 1, aux);
+        }
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // insertion sort array[lo...hi], all of which share their first d characters
+    private static void insertion(String[] array, int lo, int hi, int d) {
+        for (int i = lo; i <= hi; i++) {
+            for (int j = i; j > lo && less(array[j], array[j - 1], d); j--) {
+                exch(array, j, j - 1);
+            }
+        }
+    }
+
+    /***************************************************************************
+     *  Helper sorting functions.
+     ***************************************************************************/
+
+    // d-th character of s, or -1 if s has exactly d characters
+    private static int charAt(String s, int d) {
+        if (d == s.length()) return -1;
+        return s.charAt(d);
+    }
+
+    // throw unless every character of s is extended ASCII
+    private static void checkAlphabet(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c >= R) throw new IllegalArgumentException("not an extended ASCII character: " + c);
+        }
+    }
+
+    // is v < w, given that both share their first d characters?
+    private static boolean less(String v, String w, int d) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        int n = Math.min(v.length(), w.length());
+        for (int i = d; i < n; i++) {
+            if (v.charAt(i) < w.charAt(i)) return true;
+            if (v.charAt(i) > w.charAt(i)) return false;
+        }
+        return v.length() < w.length();
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(String[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        String swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    /***************************************************************************
+     *  Check if array is sorted - useful for debugging.
+     ***************************************************************************/
+
+    // is the array a[] sorted?
+    private static boolean isSorted(String[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i].compareTo(a[i - 1]) < 0) return false;
+        return true;
+    }
+
+    // print array to standard output
+    private static void show(String[] a) {
+        for (String s : a) {
+            StdOut.println(s);
+        }
+    }
+
+    /**
+     * Reads in a sequence of strings from standard input; MSD radix sorts them;
+     * and prints them to standard output in ascending order.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        String[] a = StdIn.readAllStrings();
+        MSD.sort(a);
+        MSD.show(a);
+    }
+}
@@ -3,7 +3,13 @@ package sorting;
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 
-@SuppressWarnings("rawtypes")
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class Merge {
 
     // This class should not be instantiated.
@@ -11,70 +17,879 @@ public class Merge {
     }
 
     /**
-     * Stably merge sorted array[lo...mid] and array[mid+1...hi] into array[lo...hi], using aux[lo...hi]
+     * Sort helper, sorts array[lo...hi] using aux[lo...hi].
+     * The subarray is copied to aux once; from there each level of the recursion merges from one buffer
+     * into the other, so no merge has to copy its input to aux first.
      *
      * @param array the array to be sorted
      * @param aux   helper array to hold items while merging
-     * @param lo    start of the first portion
-     * @param mid   end of the first portion
-     * @param hi    end of the second portion
      */
-    private static void merge(Comparable[] array, Comparable[] aux, int lo, int mid, int hi) {
-        assert isSorted(array, lo, mid);
-        assert isSorted(array, mid + 1, hi);
-        // copy the sorted portions into the aux array
-        if (hi - lo >= 0) System.arraycopy(array, lo, aux, lo, hi - lo + 1);
+    private static void sort(Comparable[] array, Comparable[] aux, int lo, int hi) {
+        if (hi <= lo) {
+            return;
+        }
+        System.arraycopy(array, lo, aux, lo, hi - lo + 1);
+        if (SortProbes.ENABLED) SortProbes.wrote(hi - lo + 1);
+        sortInto(aux, array, lo, hi);
+    }
+
+    /**
+     * Sorts dst[lo...hi], using src[lo...hi] as the other buffer; both must hold the same items on entry.
+     * The halves are sorted into src, then merged back into dst.
+     */
+    private static void sortInto(Comparable[] src, Comparable[] dst, int lo, int hi) {
+        if (hi <= lo) {
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+
+        int mid = lo + (hi - lo) / 2;
+        sortInto(dst, src, lo, mid);
+        sortInto(dst, src, mid + 1, hi);
+        assert isSorted(src, lo, mid);
+        assert isSorted(src, mid + 1, hi);
+        merge(src, dst, lo, mid, hi);
+        assert isSorted(dst, lo, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // stably merge src[lo...mid] with src[mid+1...hi] into dst[lo...hi]
+    private static void merge(Comparable[] src, Comparable[] dst, int lo, int mid, int hi) {
+        if (SortProbes.ENABLED) SortProbes.wrote(hi - lo + 1);
 
         int i = lo;
         int j = mid + 1;
-        // merge the two sub arrays back to array[]
         for (int k = lo; k <= hi; k++) {
-            if (j > hi) array[k] = aux[i++];
-            else if (i > mid) array[k] = aux[j++];
-            else if (less(aux[i], aux[j])) array[k] = aux[i++];
-            else array[k] = aux[j++];
+            if (j > hi) dst[k] = src[i++];
+            else if (i > mid) dst[k] = src[j++];
+            else if (less(src[j], src[i])) dst[k] = src[j++];
+            else dst[k] = src[i++];
         }
-        assert isSorted(array, lo, hi);
     }
 
     /**
-     * Sort helper, recursively sort the array
+     * Rearranges the array in ascending order, using the natural order.
+     * The aux array comes from a buffer kept per thread, so that sorting arrays of up to
+     * {@link ScratchBuffers#MAX_POOLED} items over and over allocates nothing.
      *
      * @param array the array to be sorted
      */
-    private static void sort(Comparable[] array, Comparable[] aux, int lo, int hi) {
+    public static void sort(Comparable[] array) {
+        int n = array.length;
+        Comparable[] aux = ScratchBuffers.takeComparables(n);
+        sort(array, aux);
+        ScratchBuffers.release(aux, n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and a caller-supplied aux array.
+     * On return aux holds the items of the array in no particular order; it is up to the caller to clear it.
+     *
+     * @param array the array to be sorted
+     * @param aux   helper array of at least {@code array.length} items
+     * @throws IllegalArgumentException if {@code aux.length < array.length}
+     */
+    public static void sort(Comparable[] array, Comparable[] aux) {
+        int n = array.length;
+        if (aux.length < n) throw new IllegalArgumentException("aux array shorter than " + n + ": " + aux.length);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Merge.sort", n);
+        sort(array, aux, 0, n - 1);
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Merge.sort", n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using a comparator.
+     * The sort is stable. The aux array comes from a buffer kept per thread, as for {@link #sort(Comparable[])}.
+     *
+     * @param array      the array to be sorted
+     * @param comparator the comparator specifying the order
+     */
+    public static void sort(Object[] array, Comparator comparator) {
+        int n = array.length;
+        Object[] aux = ScratchBuffers.takeObjects(n);
+        sort(array, comparator, aux);
+        ScratchBuffers.release(aux, n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using a comparator and a caller-supplied aux array.
+     * The sort is stable. On return aux holds the items of the array in no particular order.
+     *
+     * @param array      the array to be sorted
+     * @param comparator the comparator specifying the order
+     * @param aux        helper array of at least {@code array.length} items
+     * @throws IllegalArgumentException if {@code aux.length < array.length}
+     */
+    public static void sort(Object[] array, Comparator comparator, Object[] aux) {
+        int n = array.length;
+        if (aux.length < n) throw new IllegalArgumentException("aux array shorter than " + n + ": " + aux.length);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Merge.sort", n);
+        if (n > 1) {
+            System.arraycopy(array, 0, aux, 0, n);
+            if (SortProbes.ENABLED) SortProbes.wrote(n);
+            sortInto(aux, array, comparator, 0, n - 1);
+        }
+        assert isSorted(array, comparator, 0, n - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Merge.sort", n);
+    }
+
+    // sort dst[lo...hi] using a comparator, with src[lo...hi] holding the same items as the other buffer
+    private static void sortInto(Object[] src, Object[] dst, Comparator comparator, int lo, int hi) {
         if (hi <= lo) {
             return;
         }
+        if (SortProbes.ENABLED) SortProbes.entered();
 
         int mid = lo + (hi - lo) / 2;
-        sort(array, aux, lo, mid);
-        sort(array, aux, mid + 1, hi);
-        merge(array, aux, lo, mid, hi);
+        sortInto(dst, src, comparator, lo, mid);
+        sortInto(dst, src, comparator, mid + 1, hi);
+        merge(src, dst, comparator, lo, mid, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
     }
 
+    // stably merge src[lo...mid] with src[mid+1...hi] into dst[lo...hi] using a comparator
+    private static void merge(Object[] src, Object[] dst, Comparator comparator, int lo, int mid, int hi) {
+        if (SortProbes.ENABLED) SortProbes.wrote(hi - lo + 1);
+
+        int i = lo;
+        int j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (j > hi) dst[k] = src[i++];
+            else if (i > mid) dst[k] = src[j++];
+            else if (less(comparator, src[j], src[i])) dst[k] = src[j++];
+            else dst[k] = src[i++];
+        }
+    }
+
+    /***************************************************************************
+     *  Argsort and cached-key sorts.
+     ***************************************************************************/
+
     /**
-     * Rearranges the array in ascending order, using the natural order.
+     * Returns the permutation that stably sorts the keys: the index of the smallest key, then of the
+     * second smallest, and so on, equal keys in index order. The keys are not moved; the permutation can be
+     * applied to any number of parallel columns with the {@code permute} methods.
+     *
+     * @param keys the keys to sort by
+     * @return the indices of the keys in ascending order of key
+     */
+    public static int[] argsort(Comparable[] keys) {
+        int n = keys.length;
+        int[] index = identity(n);
+        sortIndex(index, (i, j) -> less(keys[i], keys[j]));
+        return index;
+    }
+
+    /**
+     * Returns the permutation that stably sorts the keys: the index of the smallest key, then of the
+     * second smallest, and so on. The keys are not moved.
+     *
+     * @param keys the keys to sort by
+     * @return the indices of the keys in ascending order of key
+     */
+    public static int[] argsort(int[] keys) {
+        int n = keys.length;
+        int[] index = identity(n);
+        sortIndex(index, (i, j) -> less(keys[i], keys[j]));
+        return index;
+    }
+
+    /**
+     * Returns the permutation that stably sorts the keys: the index of the smallest key, then of the
+     * second smallest, and so on. The keys are not moved.
+     *
+     * @param keys the keys to sort by
+     * @return the indices of the keys in ascending order of key
+     */
+    public static int[] argsort(long[] keys) {
+        int n = keys.length;
+        int[] index = identity(n);
+        sortIndex(index, (i, j) -> less(keys[i], keys[j]));
+        return index;
+    }
+
+    /**
+     * Returns the permutation that stably sorts the keys, in the total order of {@link Double#compare}: the index of the smallest key, then of the
+     * second smallest, and so on. The keys are not moved.
+     *
+     * @param keys the keys to sort by
+     * @return the indices of the keys in ascending order of key
+     */
+    public static int[] argsort(double[] keys) {
+        int n = keys.length;
+        int[] index = identity(n);
+        sortIndex(index, (i, j) -> less(keys[i], keys[j]));
+        return index;
+    }
+
+    /**
+     * Rearranges each column in place so that column[k] is the item that was at column[perm[k]].
+     * The permutation is walked cycle by cycle, so no column is copied; it is marked while a column is
+     * being rearranged and restored afterwards, so it must not be used by another thread meanwhile.
+     *
+     * @param perm    a permutation of 0...n-1, like one returned by argsort
+     * @param columns the columns to rearrange, each of length n
+     * @throws IllegalArgumentException if a column is not as long as the permutation
+     */
+    public static void permute(int[] perm, Object[]... columns) {
+        for (Object[] column : columns) {
+            if (column.length != perm.length) throw new IllegalArgumentException("column length " + column.length + " != " + perm.length);
+        }
+        for (Object[] column : columns) {
+            permuteColumn(perm, column);
+        }
+    }
+
+    // rearrange the column in place so that column[k] is the item that was at column[perm[k]]
+    private static void permuteColumn(int[] perm, Object[] column) {
+        for (int start = 0; start < perm.length; start++) {
+            if (perm[start] < 0) continue;
+            Object first = column[start];
+            int k = start;
+            while (perm[k] != start) {
+                int next = perm[k];
+                column[k] = column[next];
+                perm[k] = ~next;
+                k = next;
+            }
+            column[k] = first;
+            perm[k] = ~start;
+        }
+        restore(perm);
+    }
+
+    /**
+     * Rearranges the column in place so that column[k] is the item that was at column[perm[k]].
+     *
+     * @param perm   a permutation of 0...n-1, like one returned by argsort
+     * @param column the column to rearrange, of length n
+     * @throws IllegalArgumentException if the column is not as long as the permutation
+     */
+    public static void permute(int[] perm, int[] column) {
+        if (column.length != perm.length) throw new IllegalArgumentException("column length " + column.length + " != " + perm.length);
+        for (int start = 0; start < perm.length; start++) {
+            if (perm[start] < 0) continue;
+            int first = column[start];
+            int k = start;
+            while (perm[k] != start) {
+                int next = perm[k];
+                column[k] = column[next];
+                perm[k] = ~next;
+                k = next;
+            }
+            column[k] = first;
+            perm[k] = ~start;
+        }
+        restore(perm);
+    }
+
+    /**
+     * Rearranges the column in place so that column[k] is the item that was at column[perm[k]].
+     *
+     * @param perm   a permutation of 0...n-1, like one returned by argsort
+     * @param column the column to rearrange, of length n
+     * @throws IllegalArgumentException if the column is not as long as the permutation
+     */
+    public static void permute(int[] perm, long[] column) {
+        if (column.length != perm.length) throw new IllegalArgumentException("column length " + column.length + " != " + perm.length);
+        for (int start = 0; start < perm.length; start++) {
+            if (perm[start] < 0) continue;
+            long first = column[start];
+            int k = start;
+            while (perm[k] != start) {
+                int next = perm[k];
+                column[k] = column[next];
+                perm[k] = ~next;
+                k = next;
+            }
+            column[k] = first;
+            perm[k] = ~start;
+        }
+        restore(perm);
+    }
+
+    /**
+     * Rearranges the column in place so that column[k] is the item that was at column[perm[k]].
+     *
+     * @param perm   a permutation of 0...n-1, like one returned by argsort
+     * @param column the column to rearrange, of length n
+     * @throws IllegalArgumentException if the column is not as long as the permutation
+     */
+    public static void permute(int[] perm, double[] column) {
+        if (column.length != perm.length) throw new IllegalArgumentException("column length " + column.length + " != " + perm.length);
+        for (int start = 0; start < perm.length; start++) {
+            if (perm[start] < 0) continue;
+            double first = column[start];
+            int k = start;
+            while (perm[k] != start) {
+                int next = perm[k];
+                column[k] = column[next];
+                perm[k] = ~next;
+                k = next;
+            }
+            column[k] = first;
+            perm[k] = ~start;
+        }
+        restore(perm);
+    }
+
+    /**
+     * Rearranges the array in ascending order of the keys extracted from its items.
+     * The key of each item is computed once, up front, instead of on each of the ~n log n compares;
+     * the indices of the items are merge sorted by key and the items are then moved to their place.
+     * The sort is stable.
      *
      * @param array the array to be sorted
+     * @param key   the function extracting the sort key of an item
      */
-    public static void sort(Comparable[] array) {
+    public static <T, K extends Comparable<? super K>> void sortBy(T[] array, Function<? super T, ? extends K> key) {
+        Comparable[] keys = new Comparable[array.length];
+        for (int i = 0; i < array.length; i++) {
+            keys[i] = key.apply(array[i]);
+        }
+        permuteColumn(argsort(keys), array);
+    }
+
+    /**
+     * Rearranges the array in ascending order of the long keys extracted from its items.
+     * The key of each item is computed once into a long[], which is radix sorted along with the indices
+     * of the items by {@link LSD#parallelSort(long[], int[])}; the items are then moved to their place.
+     * The sort is stable.
+     *
+     * @param array the array to be sorted
+     * @param key   the function extracting the sort key of an item
+     */
+    public static <T> void sortByLong(T[] array, ToLongFunction<? super T> key) {
+        int n = array.length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = key.applyAsLong(array[i]);
+        }
+        int[] index = identity(n);
+        LSD.parallelSort(keys, index);
+        permuteColumn(index, array);
+    }
+
+    // 0, 1, ..., n-1
+    private static int[] identity(int n) {
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        return index;
+    }
+
+    // undo the marks that permute left on every entry of the permutation
+    private static void restore(int[] perm) {
+        for (int i = 0; i < perm.length; i++) {
+            perm[i] = ~perm[i];
+        }
+    }
+
+    // order of the items of an index sort: is the key of item i less than the key of item j ?
+    private interface IndexOrder {
+        boolean less(int i, int j);
+    }
+
+    /**
+     * Stably sorts the indices by the order of the items they refer to.
+     * The indices are copied to a pooled aux array once and merged back and forth between the two
+     * like the items of {@link #sort(Comparable[], Comparable[], int, int)}.
+     */
+    private static void sortIndex(int[] index, IndexOrder order) {
+        int n = index.length;
+        if (n < 2) {
+            return;
+        }
+        int[] aux = ScratchBuffers.takeInts(n);
+        System.arraycopy(index, 0, aux, 0, n);
+        sortIndexInto(aux, index, order, 0, n - 1);
+        ScratchBuffers.release(aux);
+    }
+
+    // sorts dst[lo...hi], using src[lo...hi] as the other buffer; both must hold the same indices on entry
+    private static void sortIndexInto(int[] src, int[] dst, IndexOrder order, int lo, int hi) {
+        if (hi <= lo) {
+            return;
+        }
+        int mid = lo + (hi - lo) / 2;
+        sortIndexInto(dst, src, order, lo, mid);
+        sortIndexInto(dst, src, order, mid + 1, hi);
+        // the halves are already in order
+        if (!order.less(src[mid + 1], src[mid])) {
+            System.arraycopy(src, lo, dst, lo, hi - lo + 1);
+            return;
+        }
+        int i = lo;
+        int j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (j > hi) dst[k] = src[i++];
+            else if (i > mid) dst[k] = src[j++];
+            else if (order.less(src[j], src[i])) dst[k] = src[j++];
+            else dst[k] = src[i++];
+        }
+    }
+
+    /***************************************************************************
+     *  Parallel merge sort.
+     ***************************************************************************/
+
+    // subarrays of at most this many items are sorted and merged sequentially
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and all cores of the common fork/join pool.
+     *
+     * @param array the array to be sorted
+     */
+    public static void parallelSort(Comparable[] array) {
+        parallelSort(array, PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and all cores of the common fork/join pool.
+     * The recursion is split into parallel tasks until subarrays hold at most {@code threshold} items,
+     * and the merges are split the same way, so that the final merges run in parallel as well.
+     *
+     * @param array     the array to be sorted
+     * @param threshold size at or below which subarrays are sorted and merged sequentially
+     * @throws IllegalArgumentException if {@code threshold < 1}
+     */
+    public static void parallelSort(Comparable[] array, int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException();
         int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Merge.parallelSort", n);
         Comparable[] aux = new Comparable[n];
-        sort(array, aux, 0, n - 1);
+        Object sort = SortProbes.ENABLED ? SortProbes.currentSort() : null;
+        ForkJoinPool.commonPool().invoke(new SortTask(array, aux, 0, n - 1, false, threshold, sort));
         assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Merge.parallelSort", n);
+    }
+
+    /**
+     * Sorts array[lo...hi] and leaves the result either in array[lo...hi] or in aux[lo...hi].
+     * The two halves are sorted into the other buffer so that they can be merged straight into the target one,
+     * which saves copying the subarray to aux before every merge.
+     */
+    @SuppressWarnings("serial")
+    private static class SortTask extends RecursiveAction {
+        private final Comparable[] array;
+        private final Comparable[] aux;
+        private final int lo;
+        private final int hi;
+        private final boolean intoAux;
+        private final int threshold;
+        // handle of the sort for the probe, or null
+        private final Object sort;
+
+        SortTask(Comparable[] array, Comparable[] aux, int lo, int hi, boolean intoAux, int threshold, Object sort) {
+            this.array = array;
+            this.aux = aux;
+            this.lo = lo;
+            this.hi = hi;
+            this.intoAux = intoAux;
+            this.threshold = threshold;
+            this.sort = sort;
+        }
+
+        @Override
+        protected void compute() {
+            if (SortProbes.ENABLED) SortProbes.taskStarted(sort);
+            try {
+                if (hi - lo < threshold) {
+                    if (hi <= lo) {
+                        if (intoAux && hi == lo) aux[lo] = array[lo];
+                        return;
+                    }
+                    System.arraycopy(array, lo, aux, lo, hi - lo + 1);
+                    if (SortProbes.ENABLED) SortProbes.wrote(hi - lo + 1);
+                    if (intoAux) sortInto(array, aux, lo, hi);
+                    else sortInto(aux, array, lo, hi);
+                    return;
+                }
+                int mid = lo + (hi - lo) / 2;
+                invokeAll(new SortTask(array, aux, lo, mid, !intoAux, threshold, sort),
+                        new SortTask(array, aux, mid + 1, hi, !intoAux, threshold, sort));
+
+                Comparable[] src = intoAux ? array : aux;
+                Comparable[] dst = intoAux ? aux : array;
+                new MergeTask(src, dst, lo, mid, mid + 1, hi, lo, threshold, sort).compute();
+            } finally {
+                if (SortProbes.ENABLED) SortProbes.taskFinished(sort);
+            }
+        }
+    }
+
+    /**
+     * Stably merges sorted src[lo1...hi1] and src[lo2...hi2] into dst, starting at dst[k].
+     * Large merges are split in two independent merges: the middle item of the longer run is located
+     * in the shorter run by binary search, and everything before it is merged apart from everything after it.
+     */
+    @SuppressWarnings("serial")
+    private static class MergeTask extends RecursiveAction {
+        private final Comparable[] src;
+        private final Comparable[] dst;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int k;
+        private final int threshold;
+        // handle of the sort for the probe, or null
+        private final Object sort;
+
+        MergeTask(Comparable[] src, Comparable[] dst, int lo1, int hi1, int lo2, int hi2, int k, int threshold, Object sort) {
+            this.src = src;
+            this.dst = dst;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.k = k;
+            this.threshold = threshold;
+            this.sort = sort;
+        }
+
+        @Override
+        protected void compute() {
+            if (SortProbes.ENABLED) SortProbes.taskStarted(sort);
+            try {
+                int n1 = hi1 - lo1 + 1;
+                int n2 = hi2 - lo2 + 1;
+                // two or fewer items cannot be split any further
+                if (n1 + n2 <= threshold || n1 + n2 <= 2) {
+                    merge(src, dst, lo1, hi1, lo2, hi2, k);
+                    return;
+                }
+
+                // src[lo1...m1-1] and src[lo2...m2-1] go before src[m1...hi1] and src[m2...hi2]
+                int m1;
+                int m2;
+                if (n1 >= n2) {
+                    m1 = lo1 + n1 / 2;
+                    // equal items of the second run must stay after src[m1]
+                    m2 = lowerBound(src, lo2, hi2, src[m1]);
+                } else {
+                    m2 = lo2 + n2 / 2;
+                    // equal items of the first run must stay before src[m2]
+                    m1 = upperBound(src, lo1, hi1, src[m2]);
+                }
+                invokeAll(new MergeTask(src, dst, lo1, m1 - 1, lo2, m2 - 1, k, threshold, sort),
+                        new MergeTask(src, dst, m1, hi1, m2, hi2, k + (m1 - lo1) + (m2 - lo2), threshold, sort));
+            } finally {
+                if (SortProbes.ENABLED) SortProbes.taskFinished(sort);
+            }
+        }
+    }
+
+    /**
+     * Stably merge sorted src[lo1...hi1] and src[lo2...hi2] into dst, starting at dst[k]
+     */
+    private static void merge(Comparable[] src, Comparable[] dst, int lo1, int hi1, int lo2, int hi2, int k) {
+        if (SortProbes.ENABLED) SortProbes.wrote(hi1 - lo1 + 1 + hi2 - lo2 + 1);
+        int i = lo1;
+        int j = lo2;
+        while (i <= hi1 && j <= hi2) {
+            if (less(src[j], src[i])) dst[k++] = src[j++];
+            else dst[k++] = src[i++];
+        }
+        if (i <= hi1) System.arraycopy(src, i, dst, k, hi1 - i + 1);
+        if (j <= hi2) System.arraycopy(src, j, dst, k, hi2 - j + 1);
+    }
+
+    /**
+     * Stably merge sorted a and sorted b into dst[0...a.length+b.length), taking from a on ties.
+     * If b starts no lower than a ends, the two are copied over without any further compare.
+     */
+    static void merge(Comparable[] a, Comparable[] b, Comparable[] dst) {
+        if (SortProbes.ENABLED) SortProbes.wrote(a.length + b.length);
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        boolean ordered = a.length == 0 || b.length == 0 || !less(b[0], a[a.length - 1]);
+        while (!ordered && i < a.length && j < b.length) {
+            if (less(b[j], a[i])) dst[k++] = b[j++];
+            else dst[k++] = a[i++];
+        }
+        System.arraycopy(a, i, dst, k, a.length - i);
+        k += a.length - i;
+        System.arraycopy(b, j, dst, k, b.length - j);
+    }
+
+    // index of the first item in a[lo...hi] that is not less than key, or hi + 1
+    private static int lowerBound(Comparable[] a, int lo, int hi, Comparable key) {
+        hi++;
+        while (lo < hi) {
+            int mid = lo + (hi - lo) / 2;
+            if (less(a[mid], key)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    // index of the first item in a[lo...hi] that is greater than key, or hi + 1
+    private static int upperBound(Comparable[] a, int lo, int hi, Comparable key) {
+        hi++;
+        while (lo < hi) {
+            int mid = lo + (hi - lo) / 2;
+            if (less(key, a[mid])) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
     }
 
 
+    /***************************************************************************
+     *  Primitive-specialized sorts.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Merge.sort", to - from);
+        int[] aux = new int[to - from];
+        sort(array, aux, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Merge.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Merge.sort", to - from);
+        long[] aux = new long[to - from];
+        sort(array, aux, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Merge.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Merge.sort", to - from);
+        double[] aux = new double[to - from];
+        sort(array, aux, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Merge.sort", to - from);
+    }
+
+    /**
+     * Stably merge sorted array[lo...mid] and array[mid+1...hi] into array[lo...hi], using aux[0...mid-lo].
+     * Only the left portion is copied out: the merge can never overwrite an unread item of the right portion.
+     *
+     * @param array the array to be sorted
+     * @param aux   helper array to hold the left portion while merging
+     * @param lo    start of the first portion
+     * @param mid   end of the first portion
+     * @param hi    end of the second portion
+     */
+    private static void merge(int[] array, int[] aux, int lo, int mid, int hi) {
+        int n = mid - lo + 1;
+        System.arraycopy(array, lo, aux, 0, n);
+        if (SortProbes.ENABLED) SortProbes.wrote(n + hi - lo + 1);
+
+        int i = 0;
+        int j = mid + 1;
+        int k = lo;
+        while (i < n && j <= hi) {
+            if (less(array[j], aux[i])) array[k++] = array[j++];
+            else array[k++] = aux[i++];
+        }
+        // whatever is left of the second portion is already in place
+        while (i < n) array[k++] = aux[i++];
+    }
+
+    // recursively sort array[lo...hi]
+    private static void sort(int[] array, int[] aux, int lo, int hi) {
+        if (hi - lo < SortingNetwork.MAX_SIZE) {
+            SortingNetwork.sortLeaf(array, lo, hi - lo + 1);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int mid = lo + (hi - lo) / 2;
+        sort(array, aux, lo, mid);
+        sort(array, aux, mid + 1, hi);
+        // merge, unless the halves are already in order
+        if (less(array[mid + 1], array[mid])) {
+            merge(array, aux, lo, mid, hi);
+        }
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    /**
+     * Stably merge sorted array[lo...mid] and array[mid+1...hi] into array[lo...hi], using aux[0...mid-lo].
+     * Only the left portion is copied out: the merge can never overwrite an unread item of the right portion.
+     *
+     * @param array the array to be sorted
+     * @param aux   helper array to hold the left portion while merging
+     * @param lo    start of the first portion
+     * @param mid   end of the first portion
+     * @param hi    end of the second portion
+     */
+    private static void merge(long[] array, long[] aux, int lo, int mid, int hi) {
+        int n = mid - lo + 1;
+        System.arraycopy(array, lo, aux, 0, n);
+        if (SortProbes.ENABLED) SortProbes.wrote(n + hi - lo + 1);
+
+        int i = 0;
+        int j = mid + 1;
+        int k = lo;
+        while (i < n && j <= hi) {
+            if (less(array[j], aux[i])) array[k++] = array[j++];
+            else array[k++] = aux[i++];
+        }
+        // whatever is left of the second portion is already in place
+        while (i < n) array[k++] = aux[i++];
+    }
+
+    // recursively sort array[lo...hi]
+    private static void sort(long[] array, long[] aux, int lo, int hi) {
+        if (hi - lo < SortingNetwork.MAX_SIZE) {
+            SortingNetwork.sortLeaf(array, lo, hi - lo + 1);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int mid = lo + (hi - lo) / 2;
+        sort(array, aux, lo, mid);
+        sort(array, aux, mid + 1, hi);
+        // merge, unless the halves are already in order
+        if (less(array[mid + 1], array[mid])) {
+            merge(array, aux, lo, mid, hi);
+        }
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    /**
+     * Stably merge sorted array[lo...mid] and array[mid+1...hi] into array[lo...hi], using aux[0...mid-lo].
+     * Only the left portion is copied out: the merge can never overwrite an unread item of the right portion.
+     *
+     * @param array the array to be sorted
+     * @param aux   helper array to hold the left portion while merging
+     * @param lo    start of the first portion
+     * @param mid   end of the first portion
+     * @param hi    end of the second portion
+     */
+    private static void merge(double[] array, double[] aux, int lo, int mid, int hi) {
+        int n = mid - lo + 1;
+        System.arraycopy(array, lo, aux, 0, n);
+        if (SortProbes.ENABLED) SortProbes.wrote(n + hi - lo + 1);
+
+        int i = 0;
+        int j = mid + 1;
+        int k = lo;
+        while (i < n && j <= hi) {
+            if (less(array[j], aux[i])) array[k++] = array[j++];
+            else array[k++] = aux[i++];
+        }
+        // whatever is left of the second portion is already in place
+        while (i < n) array[k++] = aux[i++];
+    }
+
+    // recursively sort array[lo...hi]
+    private static void sort(double[] array, double[] aux, int lo, int hi) {
+        if (hi - lo < SortingNetwork.MAX_SIZE) {
+            SortingNetwork.sortLeaf(array, lo, hi - lo + 1);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int mid = lo + (hi - lo) / 2;
+        sort(array, aux, lo, mid);
+        sort(array, aux, mid + 1, hi);
+        // merge, unless the halves are already in order
+        if (less(array[mid + 1], array[mid])) {
+            merge(array, aux, lo, mid, hi);
+        }
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
     /***************************************************************************
      *  Helper sorting functions.
      ***************************************************************************/
 
     // is v < w ?
     private static boolean less(Comparable v, Comparable w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
         return v.compareTo(w) < 0;
     }
 
+    // is v < w ?
+    private static boolean less(Comparator comparator, Object v, Object w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return comparator.compare(v, w) < 0;
+    }
+
+    // is v < w ?
+    private static boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return Double.compare(v, w) < 0;
+    }
+
+    // is array[from...to) a valid subarray of an array of the given length?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
+    }
+
 
     /***************************************************************************
      *  Check if array is sorted - useful for debugging.
@@ -92,6 +907,34 @@ public class Merge {
         return true;
     }
 
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(Object[] a, Comparator comparator, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(comparator, a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
     // print array to standard output
     private static void show(Comparable[] a) {
         for (Comparable objectComparable : a) {
@@ -3,7 +3,9 @@ package sorting;
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 
-@SuppressWarnings("rawtypes")
+import java.util.Comparator;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class MergeBottomUp {
 
     // This class should not be instantiated.
@@ -11,50 +13,316 @@ public class MergeBottomUp {
     }
 
     /**
-     * Stably merge sorted array[lo...mid] and array[mid+1...hi] into array[lo...hi], using aux[lo...hi]
+     * Stably merge sorted src[lo...mid] and src[mid+1...hi] into dst[lo...hi].
+     * A run with no partner, where mid >= hi, is copied over as it is.
      *
-     * @param array the array to be sorted
-     * @param aux   helper array to hold items while merging
-     * @param lo    start of the first portion
-     * @param mid   end of the first portion
-     * @param hi    end of the second portion
+     * @param src the array holding the sorted portions
+     * @param dst the array to merge them into
+     * @param lo  start of the first portion
+     * @param mid end of the first portion
+     * @param hi  end of the second portion
      */
-    private static void merge(Comparable[] array, Comparable[] aux, int lo, int mid, int hi) {
-        assert isSorted(array, lo, mid);
-        assert isSorted(array, mid + 1, hi);
-        // copy the sorted portions into the aux array
-        if (hi - lo >= 0) System.arraycopy(array, lo, aux, lo, hi - lo + 1);
+    private static void merge(Comparable[] src, Comparable[] dst, int lo, int mid, int hi) {
+        assert isSorted(src, lo, Math.min(mid, hi));
+        assert isSorted(src, mid + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.wrote(hi - lo + 1);
 
         int i = lo;
         int j = mid + 1;
-        // merge the two sub arrays back to array[]
         for (int k = lo; k <= hi; k++) {
-            if (j > hi) array[k] = aux[i++];
-            else if (i > mid) array[k] = aux[j++];
-            else if (less(aux[i], aux[j])) array[k] = aux[i++];
-            else array[k] = aux[j++];
+            if (j > hi) dst[k] = src[i++];
+            else if (i > mid) dst[k] = src[j++];
+            else if (less(src[j], src[i])) dst[k] = src[j++];
+            else dst[k] = src[i++];
         }
-        assert isSorted(array, lo, hi);
+        assert isSorted(dst, lo, hi);
     }
 
-
     /**
      * Rearranges the array in ascending order, using the natural order.
+     * The sort is stable. The aux array comes from a buffer kept per thread, so that sorting arrays of up to
+     * {@link ScratchBuffers#MAX_POOLED} items over and over allocates nothing.
      *
      * @param array the array to be sorted
      */
     public static void sort(Comparable[] array) {
         int n = array.length;
-        Comparable[] aux = new Comparable[n];
+        Comparable[] aux = ScratchBuffers.takeComparables(n);
+        sort(array, aux);
+        ScratchBuffers.release(aux, n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and a caller-supplied aux array.
+     * The sort is stable. Each pass merges all the runs from one of the two arrays into the other, and the
+     * result is copied back to the array at the end if it ended up in aux. On return aux holds the items of
+     * the array in no particular order; it is up to the caller to clear it.
+     *
+     * @param array the array to be sorted
+     * @param aux   helper array of at least {@code array.length} items
+     * @throws IllegalArgumentException if {@code aux.length < array.length}
+     */
+    public static void sort(Comparable[] array, Comparable[] aux) {
+        int n = array.length;
+        if (aux.length < n) throw new IllegalArgumentException("aux array shorter than " + n + ": " + aux.length);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("MergeBottomUp.sort", n);
+        Comparable[] src = array;
+        Comparable[] dst = aux;
 
         for (int size = 1; size < n; size = size * 2) {
-            for (int lo = 0; lo < n - size; lo += size * 2) {
-                merge(array, aux, lo, lo + size - 1, Math.min(lo + size * 2 - 1, n - 1));
+            for (int lo = 0; lo < n; lo += size * 2) {
+                merge(src, dst, lo, lo + size - 1, Math.min(lo + size * 2 - 1, n - 1));
             }
+            Comparable[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, n);
+            if (SortProbes.ENABLED) SortProbes.wrote(n);
         }
         assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("MergeBottomUp.sort", n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using a comparator.
+     * The sort is stable. The aux array comes from a buffer kept per thread, as for {@link #sort(Comparable[])}.
+     *
+     * @param array      the array to be sorted
+     * @param comparator the comparator specifying the order
+     */
+    public static void sort(Object[] array, Comparator comparator) {
+        int n = array.length;
+        Object[] aux = ScratchBuffers.takeObjects(n);
+        sort(array, comparator, aux);
+        ScratchBuffers.release(aux, n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using a comparator and a caller-supplied aux array.
+     * The sort is stable. On return aux holds the items of the array in no particular order.
+     *
+     * @param array      the array to be sorted
+     * @param comparator the comparator specifying the order
+     * @param aux        helper array of at least {@code array.length} items
+     * @throws IllegalArgumentException if {@code aux.length < array.length}
+     */
+    public static void sort(Object[] array, Comparator comparator, Object[] aux) {
+        int n = array.length;
+        if (aux.length < n) throw new IllegalArgumentException("aux array shorter than " + n + ": " + aux.length);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("MergeBottomUp.sort", n);
+        Object[] src = array;
+        Object[] dst = aux;
+
+        for (int size = 1; size < n; size = size * 2) {
+            for (int lo = 0; lo < n; lo += size * 2) {
+                merge(src, dst, comparator, lo, lo + size - 1, Math.min(lo + size * 2 - 1, n - 1));
+            }
+            Object[] swap = src;
+            src = dst;
+            dst = swap;
+        }
+        if (src != array) {
+            System.arraycopy(src, 0, array, 0, n);
+            if (SortProbes.ENABLED) SortProbes.wrote(n);
+        }
+        assert isSorted(array, comparator, 0, n - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("MergeBottomUp.sort", n);
+    }
+
+    // stably merge src[lo...mid] with src[mid+1...hi] into dst[lo...hi] using a comparator
+    private static void merge(Object[] src, Object[] dst, Comparator comparator, int lo, int mid, int hi) {
+        if (SortProbes.ENABLED) SortProbes.wrote(hi - lo + 1);
+
+        int i = lo;
+        int j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if (j > hi) dst[k] = src[i++];
+            else if (i > mid) dst[k] = src[j++];
+            else if (less(comparator, src[j], src[i])) dst[k] = src[j++];
+            else dst[k] = src[i++];
+        }
+    }
+
+
+    /***************************************************************************
+     *  Primitive-specialized sorts.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("MergeBottomUp.sort", to - from);
+        int n = to - from;
+        int[] aux = new int[n];
+
+        for (int size = 1; size < n; size = size * 2) {
+            for (int lo = from; lo < to - size; lo += size * 2) {
+                merge(array, aux, lo, lo + size - 1, Math.min(lo + size * 2 - 1, to - 1));
+            }
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("MergeBottomUp.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("MergeBottomUp.sort", to - from);
+        int n = to - from;
+        long[] aux = new long[n];
+
+        for (int size = 1; size < n; size = size * 2) {
+            for (int lo = from; lo < to - size; lo += size * 2) {
+                merge(array, aux, lo, lo + size - 1, Math.min(lo + size * 2 - 1, to - 1));
+            }
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("MergeBottomUp.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("MergeBottomUp.sort", to - from);
+        int n = to - from;
+        double[] aux = new double[n];
+
+        for (int size = 1; size < n; size = size * 2) {
+            for (int lo = from; lo < to - size; lo += size * 2) {
+                merge(array, aux, lo, lo + size - 1, Math.min(lo + size * 2 - 1, to - 1));
+            }
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("MergeBottomUp.sort", to - from);
     }
 
+    /**
+     * Stably merge sorted array[lo...mid] and array[mid+1...hi] into array[lo...hi], using aux[0...mid-lo].
+     * Only the left portion is copied out: the merge can never overwrite an unread item of the right portion.
+     *
+     * @param array the array to be sorted
+     * @param aux   helper array to hold the left portion while merging
+     * @param lo    start of the first portion
+     * @param mid   end of the first portion
+     * @param hi    end of the second portion
+     */
+    private static void merge(int[] array, int[] aux, int lo, int mid, int hi) {
+        int n = mid - lo + 1;
+        System.arraycopy(array, lo, aux, 0, n);
+        if (SortProbes.ENABLED) SortProbes.wrote(n + hi - lo + 1);
+
+        int i = 0;
+        int j = mid + 1;
+        int k = lo;
+        while (i < n && j <= hi) {
+            if (less(array[j], aux[i])) array[k++] = array[j++];
+            else array[k++] = aux[i++];
+        }
+        // whatever is left of the second portion is already in place
+        while (i < n) array[k++] = aux[i++];
+    }
+
+    /**
+     * Stably merge sorted array[lo...mid] and array[mid+1...hi] into array[lo...hi], using aux[0...mid-lo].
+     * Only the left portion is copied out: the merge can never overwrite an unread item of the right portion.
+     *
+     * @param array the array to be sorted
+     * @param aux   helper array to hold the left portion while merging
+     * @param lo    start of the first portion
+     * @param mid   end of the first portion
+     * @param hi    end of the second portion
+     */
+    private static void merge(long[] array, long[] aux, int lo, int mid, int hi) {
+        int n = mid - lo + 1;
+        System.arraycopy(array, lo, aux, 0, n);
+        if (SortProbes.ENABLED) SortProbes.wrote(n + hi - lo + 1);
+
+        int i = 0;
+        int j = mid + 1;
+        int k = lo;
+        while (i < n && j <= hi) {
+            if (less(array[j], aux[i])) array[k++] = array[j++];
+            else array[k++] = aux[i++];
+        }
+        // whatever is left of the second portion is already in place
+        while (i < n) array[k++] = aux[i++];
+    }
+
+    /**
+     * Stably merge sorted array[lo...mid] and array[mid+1...hi] into array[lo...hi], using aux[0...mid-lo].
+     * Only the left portion is copied out: the merge can never overwrite an unread item of the right portion.
+     *
+     * @param array the array to be sorted
+     * @param aux   helper array to hold the left portion while merging
+     * @param lo    start of the first portion
+     * @param mid   end of the first portion
+     * @param hi    end of the second portion
+     */
+    private static void merge(double[] array, double[] aux, int lo, int mid, int hi) {
+        int n = mid - lo + 1;
+        System.arraycopy(array, lo, aux, 0, n);
+        if (SortProbes.ENABLED) SortProbes.wrote(n + hi - lo + 1);
+
+        int i = 0;
+        int j = mid + 1;
+        int k = lo;
+        while (i < n && j <= hi) {
+            if (less(array[j], aux[i])) array[k++] = array[j++];
+            else array[k++] = aux[i++];
+        }
+        // whatever is left of the second portion is already in place
+        while (i < n) array[k++] = aux[i++];
+    }
 
     /***************************************************************************
      *  Helper sorting functions.
@@ -62,9 +330,39 @@ public class MergeBottomUp {
 
     // is v < w ?
     private static boolean less(Comparable v, Comparable w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
         return v.compareTo(w) < 0;
     }
 
+    // is v < w ?
+    private static boolean less(Comparator comparator, Object v, Object w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return comparator.compare(v, w) < 0;
+    }
+
+    // is v < w ?
+    private static boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return Double.compare(v, w) < 0;
+    }
+
+    // is array[from...to) a valid subarray of an array of the given length?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
+    }
+
     /***************************************************************************
      *  Check if array is sorted - useful for debugging.
      ***************************************************************************/
@@ -81,6 +379,34 @@ public class MergeBottomUp {
         return true;
     }
 
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(Object[] a, Comparator comparator, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(comparator, a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
     // print array to standard output
     private static void show(Comparable[] a) {
         for (Comparable objectComparable : a) {
@@ -0,0 +1,305 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Natural merge sort: merges the runs that are already in order in the input instead of fixed
+ * power-of-two widths like {@link MergeBottomUp}.
+ * <p>
+ * The array is scanned from left to right for runs. A strictly descending run is reversed, and a run shorter
+ * than {@link #MIN_RUN} is extended with binary insertion sort. Which runs to merge is decided with Munro and Wild's
+ * powersort rule: the boundary between two adjacent runs gets a power, the depth at which a perfectly
+ * balanced binary split of the array would separate the midpoints of the two runs, and the pending runs are
+ * merged while the boundary on top of the stack is deeper than the one just found. The merges then follow
+ * a nearly balanced merge tree over the runs, so r runs take O(n log r) compares and at most one pending run
+ * per level of that tree is kept. Before merging two runs, the items of both that are already in place are
+ * found by binary search and left alone, and only what remains of the left run is copied to aux. Once one
+ * run has supplied {@link #MIN_GALLOP} items in a row, the merge gallops: it finds how many more items that
+ * run supplies by exponential search and moves them as one block, so interleaved batches cost O(log) compares
+ * per stretch instead of one per item. Input made of a few sorted batches sorts in close to linear time.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class MergeNatural {
+    /**
+     * Runs shorter than this are extended with binary insertion sort.
+     */
+    public static final int MIN_RUN = 24;
+
+    /**
+     * Number of items in a row one run must win before a merge starts galloping.
+     */
+    public static final int MIN_GALLOP = 7;
+
+    // the powers of the pending runs increase up the stack and stay below log2(n) + 2, so this covers any array
+    private static final int MAX_PENDING = 64;
+
+    // This class should not be instantiated.
+    private MergeNatural() {
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order.
+     * The sort is stable.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(Comparable[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("MergeNatural.sort", n);
+        if (n > 1) {
+            Comparable[] aux = ScratchBuffers.takeComparables(n);
+            sort(array, aux);
+            ScratchBuffers.release(aux, n);
+        }
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("MergeNatural.sort", n);
+    }
+
+    private static void sort(Comparable[] array, Comparable[] aux) {
+        int n = array.length;
+        // pending runs: the i-th starts at start[i] and the boundary after it has power power[i]
+        int[] start = new int[MAX_PENDING];
+        int[] power = new int[MAX_PENDING];
+        int pending = 0;
+
+        // array[lo...mid) is the run being carried, array[mid...hi) the next one
+        int lo = 0;
+        int mid = nextRun(array, 0);
+        while (mid < n) {
+            int hi = nextRun(array, mid);
+            int p = power(lo, mid, hi, n);
+            while (pending > 0 && power[pending - 1] > p) {
+                pending--;
+                merge(array, aux, start[pending], lo, mid);
+                lo = start[pending];
+            }
+            start[pending] = lo;
+            power[pending++] = p;
+            lo = mid;
+            mid = hi;
+        }
+        while (pending > 0) {
+            pending--;
+            merge(array, aux, start[pending], lo, n);
+            lo = start[pending];
+        }
+    }
+
+    /***************************************************************************
+     *  Runs.
+     ***************************************************************************/
+
+    /**
+     * Makes the run starting at array[lo] ascending and at least MIN_RUN items long, or as long as the
+     * rest of the array, and returns its end. Only strictly descending runs are reversed, so that equal
+     * items never change their relative order.
+     */
+    private static int nextRun(Comparable[] array, int lo) {
+        int n = array.length;
+        int hi = lo + 1;
+        if (hi == n) {
+            return hi;
+        }
+        if (less(array[hi], array[lo])) {
+            while (hi < n && less(array[hi], array[hi - 1])) hi++;
+            reverse(array, lo, hi);
+        } else {
+            while (hi < n && !less(array[hi], array[hi - 1])) hi++;
+        }
+        if (hi - lo < MIN_RUN) {
+            int end = Math.min(lo + MIN_RUN, n);
+            insertionSort(array, lo, end, hi);
+            hi = end;
+        }
+        return hi;
+    }
+
+    /**
+     * Sorts array[lo...hi) by binary insertion, given that array[lo...sorted) is already in order.
+     * Each item goes after the items equal to it, so the sort stays stable.
+     */
+    private static void insertionSort(Comparable[] array, int lo, int hi, int sorted) {
+        for (int i = sorted; i < hi; i++) {
+            Comparable item = array[i];
+            int j = firstGreater(array, lo, i, item);
+            System.arraycopy(array, j, array, j + 1, i - j);
+            array[j] = item;
+            if (SortProbes.ENABLED) SortProbes.wrote(i - j + 1);
+        }
+    }
+
+    /**
+     * Returns the power of the boundary between the adjacent runs [lo...mid) and [mid...hi) of an array of
+     * n items: the first bit in which the binary fractions of their midpoints, as fractions of n, differ.
+     */
+    private static int power(int lo, int mid, int hi, int n) {
+        // the midpoints are a / 2n and b / 2n, with 0 <= a < b < 2n
+        long twoN = 2L * n;
+        long a = (long) lo + mid;
+        long b = (long) mid + hi;
+        int p = 0;
+        while (true) {
+            p++;
+            a *= 2;
+            b *= 2;
+            if (a >= twoN != b >= twoN) return p;
+            if (a >= twoN) {
+                a -= twoN;
+                b -= twoN;
+            }
+        }
+    }
+
+    /***************************************************************************
+     *  Merging.
+     ***************************************************************************/
+
+    /**
+     * Stably merge the sorted array[lo...mid) and array[mid...hi), using aux for what is left of the first
+     * run once the items of both runs that are already in place have been skipped. After MIN_GALLOP wins in
+     * a row by one run, the merge gallops until both runs supply fewer than MIN_GALLOP items per gallop.
+     */
+    private static void merge(Comparable[] array, Comparable[] aux, int lo, int mid, int hi) {
+        // the items of the first run not greater than the first of the second run are in place
+        lo = firstGreater(array, lo, mid, array[mid]);
+        if (lo == mid) {
+            return;
+        }
+        // and so are the items of the second run not less than the last of the first run
+        hi = firstNotLess(array, mid, hi, array[mid - 1]);
+
+        int n = mid - lo;
+        System.arraycopy(array, lo, aux, 0, n);
+        if (SortProbes.ENABLED) SortProbes.wrote(n + hi - lo);
+        int i = 0;
+        int j = mid;
+        int k = lo;
+        // consecutive wins of the first and of the second run
+        int firstWins = 0;
+        int secondWins = 0;
+        while (i < n && j < hi) {
+            if (firstWins < MIN_GALLOP && secondWins < MIN_GALLOP) {
+                if (less(array[j], aux[i])) {
+                    array[k++] = array[j++];
+                    secondWins++;
+                    firstWins = 0;
+                } else {
+                    array[k++] = aux[i++];
+                    firstWins++;
+                    secondWins = 0;
+                }
+                continue;
+            }
+            // gallop: the items of the second run less than aux[i] move as one block,
+            // then the items of the first run not greater than the next item of the second run
+            int end = gallopNotLess(array, j, hi, aux[i]);
+            secondWins = end - j;
+            System.arraycopy(array, j, array, k, secondWins);
+            k += secondWins;
+            j = end;
+            if (j == hi) break;
+            end = gallopGreater(aux, i, n, array[j]);
+            firstWins = end - i;
+            System.arraycopy(aux, i, array, k, firstWins);
+            k += firstWins;
+            i = end;
+        }
+        // whatever is left of the second run is already in place
+        System.arraycopy(aux, i, array, k, n - i);
+    }
+
+    // firstGreater, probing a[lo], a[lo+1], a[lo+3], a[lo+7], ... before the binary search
+    private static int gallopGreater(Comparable[] a, int lo, int hi, Comparable key) {
+        int step = 1;
+        int probe = lo;
+        while (probe < hi && !less(key, a[probe])) {
+            lo = probe + 1;
+            probe = hi - probe > step ? probe + step : hi;
+            step *= 2;
+        }
+        return firstGreater(a, lo, probe, key);
+    }
+
+    // firstNotLess, probing a[lo], a[lo+1], a[lo+3], a[lo+7], ... before the binary search
+    private static int gallopNotLess(Comparable[] a, int lo, int hi, Comparable key) {
+        int step = 1;
+        int probe = lo;
+        while (probe < hi && less(a[probe], key)) {
+            lo = probe + 1;
+            probe = hi - probe > step ? probe + step : hi;
+            step *= 2;
+        }
+        return firstNotLess(a, lo, probe, key);
+    }
+
+    // index of the first item of the sorted a[lo...hi) greater than key, or hi
+    private static int firstGreater(Comparable[] a, int lo, int hi, Comparable key) {
+        while (lo < hi) {
+            int mid = lo + (hi - lo) / 2;
+            if (less(key, a[mid])) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    // index of the first item of the sorted a[lo...hi) not less than key, or hi
+    private static int firstNotLess(Comparable[] a, int lo, int hi, Comparable key) {
+        while (lo < hi) {
+            int mid = lo + (hi - lo) / 2;
+            if (less(a[mid], key)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /***************************************************************************
+     *  Helper sorting functions.
+     ***************************************************************************/
+
+    // is v < w ?
+    private static boolean less(Comparable v, Comparable w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v.compareTo(w) < 0;
+    }
+
+    // reverse a[lo...hi)
+    private static void reverse(Object[] a, int lo, int hi) {
+        hi--;
+        while (lo < hi) {
+            Object swap = a[lo];
+            a[lo++] = a[hi];
+            a[hi--] = swap;
+        }
+    }
+
+    /***************************************************************************
+     *  Check if array is sorted - useful for debugging.
+     ***************************************************************************/
+
+    // is the array a[] sorted?
+    private static boolean isSorted(Comparable[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // print array to standard output
+    private static void show(Comparable[] a) {
+        for (Comparable objectComparable : a) {
+            StdOut.println(objectComparable);
+        }
+    }
+
+    /**
+     * Reads in a sequence of strings from standard input; natural merge sorts them;
+     * and prints them to standard output in ascending order.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        String[] a = StdIn.readAllStrings();
+        MergeNatural.sort(a);
+        MergeNatural.show(a);
+    }
+}
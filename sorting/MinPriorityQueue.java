@@ -45,6 +45,19 @@ public class MinPriorityQueue<Key> implements Iterable<Key> {
         return count == 0;
     }
 
+    /**
+     * Returns the smallest key on the priority queue, without removing it.
+     *
+     * @return the smallest key
+     * @throws NoSuchElementException if the priority queue is empty
+     */
+    public Key min() {
+        if (isEmpty()) {
+            throw new NoSuchElementException();
+        }
+        return pq[1];
+    }
+
 
     /**
      * Add a new key to the priority queue.
@@ -73,6 +86,7 @@ public class MinPriorityQueue<Key> implements Iterable<Key> {
         }
         Key minItem = pq[1];
         exch(1, count);
+        pq[count] = null;
         count--;
         sink(1);
 
@@ -183,10 +197,10 @@ public class MinPriorityQueue<Key> implements Iterable<Key> {
 
     /**
      * Returns an iterator that iterates over the keys on this priority queue
-     * in descending order.
+     * in ascending order.
      * The iterator doesn't implement {@code remove()} since it's optional.
      *
-     * @return an iterator that iterates over the keys in descending order
+     * @return an iterator that iterates over the keys in ascending order
      */
     public Iterator<Key> iterator() {
         return new HeapIterator();
@@ -198,7 +212,7 @@ public class MinPriorityQueue<Key> implements Iterable<Key> {
         public HeapIterator() {
             copy = comparator == null ? new MinPriorityQueue<>(size()) : new MinPriorityQueue<>(size(), comparator);
             for (int i = 1; i <= count; i++) {
-                copy.insert(pq[i++]);
+                copy.insert(pq[i]);
             }
         }
 
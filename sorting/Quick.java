@@ -4,8 +4,15 @@ import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
 
-@SuppressWarnings("rawtypes")
+import java.util.Comparator;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class Quick {
+    // cutoff to insertion sort
+    private static final int INSERTION_CUTOFF = 10;
+
+    // subarrays at least this long take each pivot candidate as a median of three
+    private static final int NINTHER_CUTOFF = 40;
 
     private Quick() {
     }
@@ -50,16 +57,526 @@ public class Quick {
         if (hi <= lo) {
             return;
         }
+        if (SortProbes.ENABLED) SortProbes.entered();
         int pivot = partition(array, lo, hi);
         sort(array, lo, pivot - 1);
         sort(array, pivot + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
     }
 
     public static void sort(Comparable[] array) {
         int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.sort", n);
         shuffle(array);
         sort(array, 0, n - 1);
         assert isSorted(array, 0, n - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.sort", n);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using a comparator.
+     *
+     * @param array      the array to be sorted
+     * @param comparator the comparator specifying the order
+     */
+    public static void sort(Object[] array, Comparator comparator) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.sort", n);
+        StdRandom.shuffle(array);
+        sort(array, comparator, 0, n - 1);
+        assert isSorted(array, comparator, 0, n - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.sort", n);
+    }
+
+    private static void sort(Object[] array, Comparator comparator, int lo, int hi) {
+        if (hi <= lo) {
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int pivot = partition(array, comparator, lo, hi);
+        sort(array, comparator, lo, pivot - 1);
+        sort(array, comparator, pivot + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // partition array[lo...hi] around array[lo] using a comparator, see partition(Comparable[], int, int)
+    private static int partition(Object[] array, Comparator comparator, int lo, int hi) {
+        Object pivot = array[lo];
+        int i = lo;
+        int j = hi + 1;
+
+        while (true) {
+            while (less(comparator, array[++i], pivot)) {
+                if (i == hi) {
+                    break;
+                }
+            }
+            while (less(comparator, pivot, array[--j])) {
+                if (j == lo) {
+                    break;
+                }
+            }
+            if (i >= j) {
+                break;
+            }
+            exch(array, i, j);
+        }
+        exch(array, lo, j);
+        return j;
+    }
+
+    /***************************************************************************
+     *  Introsort.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order, using the natural order, in O(n log n) time in the worst case.
+     * Quicksorts with a median-of-3 pivot and no up-front shuffle; any subarray still unsorted after
+     * 2 log2(n) levels of partitioning is heapsorted instead, and small subarrays are insertion sorted.
+     *
+     * @param array the array to be sorted
+     */
+    public static void introSort(Comparable[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.introSort", n);
+        introSort(array, 0, n - 1, 2 * log2(n));
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.introSort", n);
+    }
+
+    // introsort the subarray array[lo...hi] without reporting a sort of its own, heapsort fallback included,
+    // so that the fork/join workers of the parallel sorts of this package can call it
+    static void introSort(Comparable[] array, int lo, int hi) {
+        introSort(array, lo, hi, 2 * log2(hi - lo + 1));
+        assert isSorted(array, lo, hi);
+    }
+
+    // quicksort the subarray array[lo...hi], falling back to heapsort once depthLimit partitions deep
+    private static void introSort(Comparable[] array, int lo, int hi, int depthLimit) {
+        if (hi <= lo + INSERTION_CUTOFF) {
+            insertionSort(array, lo, hi);
+            return;
+        }
+        if (depthLimit == 0) {
+            Heap.heapSort(array, lo, hi + 1);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        exch(array, lo, median3(array, lo, lo + (hi - lo) / 2, hi));
+        int pivot = partition(array, lo, hi);
+        introSort(array, lo, pivot - 1, depthLimit - 1);
+        introSort(array, pivot + 1, hi, depthLimit - 1);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // floor of the base 2 logarithm of n, 0 for n <= 1
+    private static int log2(int n) {
+        return n <= 1 ? 0 : 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    /***************************************************************************
+     *  Selection.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array so that array[k] is the kth smallest key, array[0...k-1] <= array[k]
+     * and array[k+1...n-1] >= array[k], and returns array[k].
+     * Partitions with a median-of-3 pivot and keeps only the side holding k, which takes linear time on average;
+     * if that has not converged after 2 log2(n) partitions, the remaining subarray is heapsorted.
+     *
+     * @param array the array
+     * @param k     the rank of the key to select, starting from 0
+     * @return the key of rank k
+     * @throws IllegalArgumentException unless {@code 0 <= k < array.length}
+     */
+    public static Comparable select(Comparable[] array, int k) {
+        if (k < 0 || k >= array.length) throw new IllegalArgumentException("index is not between 0 and " + array.length + ": " + k);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.select", array.length);
+        Comparable key = introSelect(array, k);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.select", array.length);
+        return key;
+    }
+
+    // partitions until array[k] holds the key of rank k, falling back to heapsort after 2 log2(n) partitions
+    private static Comparable introSelect(Comparable[] array, int k) {
+        int lo = 0;
+        int hi = array.length - 1;
+        int depthLimit = 2 * log2(array.length);
+        while (hi > lo + INSERTION_CUTOFF) {
+            if (depthLimit-- == 0) {
+                Heap.heapSort(array, lo, hi + 1);
+                return array[k];
+            }
+            exch(array, lo, median3(array, lo, lo + (hi - lo) / 2, hi));
+            int pivot = partition(array, lo, hi);
+            if (pivot > k) hi = pivot - 1;
+            else if (pivot < k) lo = pivot + 1;
+            else return array[k];
+        }
+        insertionSort(array, lo, hi);
+        return array[k];
+    }
+
+    /**
+     * Rearranges the array so that array[0...k-1] holds its k smallest keys in ascending order;
+     * the order of the remaining keys is unspecified.
+     *
+     * @param array the array
+     * @param k     the number of smallest keys to sort
+     * @throws IllegalArgumentException unless {@code 0 <= k <= array.length}
+     */
+    public static void partialSort(Comparable[] array, int k) {
+        if (k < 0 || k > array.length) throw new IllegalArgumentException("k is not between 0 and " + array.length + ": " + k);
+        if (k == 0) {
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.partialSort", array.length);
+        introSelect(array, k - 1);
+        introSort(array, 0, k - 2, 2 * log2(k));
+        assert isSorted(array, 0, k - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.partialSort", array.length);
+    }
+
+    /***************************************************************************
+     *  Dual-pivot quicksort.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order, using the natural order.
+     * Partitions around two pivots taken from a sorted sample of the subarray instead of shuffling
+     * the whole array up front, and finishes small subarrays with insertion sort.
+     *
+     * @param array the array to be sorted
+     */
+    public static void dualPivotSort(Comparable[] array) {
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.dualPivotSort", array.length);
+        dualPivotSort(array, 0, array.length - 1);
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.dualPivotSort", array.length);
+    }
+
+    // quicksort the subarray array[lo...hi] using dual-pivot partitioning
+    private static void dualPivotSort(Comparable[] array, int lo, int hi) {
+        if (hi <= lo + INSERTION_CUTOFF) {
+            insertionSort(array, lo, hi);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        choosePivots(array, lo, hi);
+        Comparable pivot1 = array[lo];
+        Comparable pivot2 = array[hi];
+
+        int lt = lo + 1;
+        int gt = hi - 1;
+        int i = lo + 1;
+        while (i <= gt) {
+            if (less(array[i], pivot1)) {
+                exch(array, lt++, i++);
+            } else if (less(pivot2, array[i])) {
+                exch(array, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        // put the pivots in their final sorted positions
+        exch(array, lo, --lt);
+        exch(array, hi, ++gt);
+
+        // now array[lo...lt-1] < pivot1 <= array[lt+1...gt-1] <= pivot2 < array[gt+1...hi]
+        dualPivotSort(array, lo, lt - 1);
+        if (less(array[lt], array[gt])) {
+            dualPivotSort(array, lt + 1, gt - 1);
+        }
+        dualPivotSort(array, gt + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    /**
+     * Moves the pivots to array[lo] and array[hi], with array[lo] <= array[hi].
+     * Five evenly spaced candidates are sorted and the second and fourth become the pivots, which splits
+     * the subarray in rough thirds for random input and exactly for presorted input.
+     * On large subarrays each candidate is first replaced by the median of itself and two neighbours (Tukey's ninther).
+     *
+     * @param array the array to be sorted
+     * @param lo    start of the subarray
+     * @param hi    end of the subarray
+     */
+    private static void choosePivots(Comparable[] array, int lo, int hi) {
+        int n = hi - lo + 1;
+        int seventh = (n >> 3) + (n >> 6) + 1;
+        int e3 = lo + (hi - lo) / 2;
+        int e2 = e3 - seventh;
+        int e1 = e2 - seventh;
+        int e4 = e3 + seventh;
+        int e5 = e4 + seventh;
+        if (n >= NINTHER_CUTOFF) {
+            int eps = seventh / 2;
+            exch(array, e1, median3(array, e1 - eps, e1, e1 + eps));
+            exch(array, e2, median3(array, e2 - eps, e2, e2 + eps));
+            exch(array, e3, median3(array, e3 - eps, e3, e3 + eps));
+            exch(array, e4, median3(array, e4 - eps, e4, e4 + eps));
+            exch(array, e5, median3(array, e5 - eps, e5, e5 + eps));
+        }
+
+        // sort the five candidates in place with a 9 comparator sorting network
+        compareExch(array, e1, e2);
+        compareExch(array, e4, e5);
+        compareExch(array, e3, e5);
+        compareExch(array, e3, e4);
+        compareExch(array, e1, e4);
+        compareExch(array, e1, e3);
+        compareExch(array, e2, e5);
+        compareExch(array, e2, e4);
+        compareExch(array, e2, e3);
+        exch(array, lo, e2);
+        exch(array, hi, e4);
+    }
+
+    // index of the median of array[i], array[j] and array[k]
+    private static int median3(Comparable[] array, int i, int j, int k) {
+        if (less(array[i], array[j])) {
+            if (less(array[j], array[k])) return j;
+            return less(array[i], array[k]) ? k : i;
+        }
+        if (less(array[k], array[j])) return j;
+        return less(array[k], array[i]) ? k : i;
+    }
+
+    // exchange array[i] and array[j] if they are out of order
+    private static void compareExch(Comparable[] array, int i, int j) {
+        if (less(array[j], array[i])) exch(array, i, j);
+    }
+
+    // sort array[lo...hi] using insertion sort
+    private static void insertionSort(Comparable[] array, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && less(array[j], array[j - 1]); j--) {
+                exch(array, j, j - 1);
+            }
+        }
+    }
+
+    /***************************************************************************
+     *  Primitive-specialized sorts.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.sort", to - from);
+        shuffle(array, from, to);
+        quicksort(array, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.sort", to - from);
+        shuffle(array, from, to);
+        quicksort(array, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick.sort", to - from);
+        shuffle(array, from, to);
+        quicksort(array, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick.sort", to - from);
+    }
+
+    // Knuth shuffle of array[from...to)
+    private static void shuffle(int[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            exch(array, i, StdRandom.uniform(from, i + 1));
+        }
+    }
+
+    private static int partition(int[] array, int lo, int hi) {
+        int pivot = array[lo];
+        int i = lo;
+        int j = hi + 1;
+
+        while (true) {
+            while (less(array[++i], pivot)) {
+                if (i == hi) {
+                    break;
+                }
+            }
+            while (less(pivot, array[--j])) {
+                if (j == lo) {
+                    break;
+                }
+            }
+            if (i >= j) {
+                break;
+            }
+            exch(array, i, j);
+        }
+        exch(array, lo, j);
+
+        // now array[lo...j-1] <= array[j] <= array[j+1...hi]
+        return j;
+    }
+
+    // quicksort the subarray array[lo...hi]
+    private static void quicksort(int[] array, int lo, int hi) {
+        if (hi - lo < SortingNetwork.MAX_SIZE) {
+            SortingNetwork.sortLeaf(array, lo, hi - lo + 1);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int pivot = partition(array, lo, hi);
+        quicksort(array, lo, pivot - 1);
+        quicksort(array, pivot + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // Knuth shuffle of array[from...to)
+    private static void shuffle(long[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            exch(array, i, StdRandom.uniform(from, i + 1));
+        }
+    }
+
+    private static int partition(long[] array, int lo, int hi) {
+        long pivot = array[lo];
+        int i = lo;
+        int j = hi + 1;
+
+        while (true) {
+            while (less(array[++i], pivot)) {
+                if (i == hi) {
+                    break;
+                }
+            }
+            while (less(pivot, array[--j])) {
+                if (j == lo) {
+                    break;
+                }
+            }
+            if (i >= j) {
+                break;
+            }
+            exch(array, i, j);
+        }
+        exch(array, lo, j);
+
+        // now array[lo...j-1] <= array[j] <= array[j+1...hi]
+        return j;
+    }
+
+    // quicksort the subarray array[lo...hi]
+    private static void quicksort(long[] array, int lo, int hi) {
+        if (hi - lo < SortingNetwork.MAX_SIZE) {
+            SortingNetwork.sortLeaf(array, lo, hi - lo + 1);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int pivot = partition(array, lo, hi);
+        quicksort(array, lo, pivot - 1);
+        quicksort(array, pivot + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // Knuth shuffle of array[from...to)
+    private static void shuffle(double[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            exch(array, i, StdRandom.uniform(from, i + 1));
+        }
+    }
+
+    private static int partition(double[] array, int lo, int hi) {
+        double pivot = array[lo];
+        int i = lo;
+        int j = hi + 1;
+
+        while (true) {
+            while (less(array[++i], pivot)) {
+                if (i == hi) {
+                    break;
+                }
+            }
+            while (less(pivot, array[--j])) {
+                if (j == lo) {
+                    break;
+                }
+            }
+            if (i >= j) {
+                break;
+            }
+            exch(array, i, j);
+        }
+        exch(array, lo, j);
+
+        // now array[lo...j-1] <= array[j] <= array[j+1...hi]
+        return j;
+    }
+
+    // quicksort the subarray array[lo...hi]
+    private static void quicksort(double[] array, int lo, int hi) {
+        if (hi - lo < SortingNetwork.MAX_SIZE) {
+            SortingNetwork.sortLeaf(array, lo, hi - lo + 1);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int pivot = partition(array, lo, hi);
+        quicksort(array, lo, pivot - 1);
+        quicksort(array, pivot + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
     }
 
     /***************************************************************************
@@ -68,16 +585,71 @@ public class Quick {
 
     // is v < w ?
     private static boolean less(Comparable v, Comparable w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
         return v.compareTo(w) < 0;
     }
 
+    // is v < w ?
+    private static boolean less(Comparator comparator, Object v, Object w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return comparator.compare(v, w) < 0;
+    }
+
     // exchange a[i] and a[j]
     private static void exch(Object[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
         Object swap = a[i];
         a[i] = a[j];
         a[j] = swap;
     }
 
+    // is v < w ?
+    private static boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return Double.compare(v, w) < 0;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(int[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        int swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(long[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        long swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(double[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // is array[from...to) a valid subarray of an array of the given length?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
+    }
+
     /***************************************************************************
      *  Check if array is sorted - useful for debugging.
      ***************************************************************************/
@@ -94,6 +666,34 @@ public class Quick {
         return true;
     }
 
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(Object[] a, Comparator comparator, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(comparator, a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
     // print array to standard output
     private static void show(Comparable[] a) {
         for (Comparable objectComparable : a) {
@@ -0,0 +1,134 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.StdRandom;
+
+/**
+ * 3-way radix quicksort for strings.
+ * Partitions the strings 3-way on their d-th character: the less and greater parts are sorted again on
+ * the d-th character, and the equal part moves on to the (d+1)-th, so a shared prefix is inspected once per
+ * partitioning level instead of once per compare. Works for any char, unlike {@link MSD} and {@link LSD}.
+ */
+public class Quick3String {
+    // cutoff to insertion sort
+    private static final int CUTOFF = 15;
+
+    // This class should not be instantiated.
+    private Quick3String() {
+    }
+
+    /**
+     * Rearranges the array of strings in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(String[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick3String.sort", n);
+        StdRandom.shuffle(array);
+        sort(array, 0, n - 1, 0);
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick3String.sort", n);
+    }
+
+    // 3-way string quicksort array[lo...hi], all of which share their first d characters
+    private static void sort(String[] array, int lo, int hi, int d) {
+        if (hi <= lo + CUTOFF) {
+            insertion(array, lo, hi, d);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int pivot = charAt(array[lo], d);
+        int lt = lo;
+        int gt = hi;
+        int i = lo + 1;
+        while (i <= gt) {
+            int c = charAt(array[i], d);
+            // one compare of the d-th characters
+            if (SortProbes.ENABLED) SortProbes.compared();
+            if (c < pivot) {
+                exch(array, lt++, i++);
+            } else if (c > pivot) {
+                exch(array, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        // array[lo..lt-1] < pivot = array[lt..gt] < array[gt+1..hi] on the d-th character
+        sort(array, lo, lt - 1, d);
+        if (pivot >= 0) {
+            sort(array, lt, gt, d + 1);
+        }
+        sort(array, gt + 1, hi, d);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // insertion sort array[lo...hi], all of which share their first d characters
+    private static void insertion(String[] array, int lo, int hi, int d) {
+        for (int i = lo; i <= hi; i++) {
+            for (int j = i; j > lo && less(array[j], array[j - 1], d); j--) {
+                exch(array, j, j - 1);
+            }
+        }
+    }
+
+    /***************************************************************************
+     *  Helper sorting functions.
+     ***************************************************************************/
+
+    // d-th character of s, or -1 if s has exactly d characters
+    private static int charAt(String s, int d) {
+        if (d == s.length()) return -1;
+        return s.charAt(d);
+    }
+
+    // is v < w, given that both share their first d characters?
+    private static boolean less(String v, String w, int d) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        int n = Math.min(v.length(), w.length());
+        for (int i = d; i < n; i++) {
+            if (v.charAt(i) < w.charAt(i)) return true;
+            if (v.charAt(i) > w.charAt(i)) return false;
+        }
+        return v.length() < w.length();
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(String[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        String swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    /***************************************************************************
+     *  Check if array is sorted - useful for debugging.
+     ***************************************************************************/
+
+    // is the array a[] sorted?
+    private static boolean isSorted(String[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (a[i].compareTo(a[i - 1]) < 0) return false;
+        return true;
+    }
+
+    // print array to standard output
+    private static void show(String[] a) {
+        for (String s : a) {
+            StdOut.println(s);
+        }
+    }
+
+    /**
+     * Reads in a sequence of strings from standard input; 3-way radix quicksorts them;
+     * and prints them to standard output in ascending order.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        String[] a = StdIn.readAllStrings();
+        Quick3String.sort(a);
+        Quick3String.show(a);
+    }
+}
@@ -4,8 +4,15 @@ import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
 
-@SuppressWarnings("rawtypes")
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class Quick3Way {
+    // cutoff to insertion sort
+    private static final int INSERTION_CUTOFF = 10;
 
     // This class should not be instantiated.
     private Quick3Way() {
@@ -17,16 +24,20 @@ public class Quick3Way {
      * @param array the array to be sorted
      */
     public static void sort(Comparable[] array) {
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick3Way.sort", array.length);
         StdRandom.shuffle(array);
         sort(array, 0, array.length - 1);
         assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick3Way.sort", array.length);
     }
 
     // quicksort the subarray a[lo .. hi] using 3-way partitioning
     private static void sort(Comparable[] array, int lo, int hi) {
-        if (hi <= lo) {
+        if (hi <= lo + INSERTION_CUTOFF) {
+            insertionSort(array, lo, hi);
             return;
         }
+        if (SortProbes.ENABLED) SortProbes.entered();
         Comparable pivot = array[lo];
         int lt = lo;
         int i = lo + 1;
@@ -45,8 +56,472 @@ public class Quick3Way {
         sort(array, lo, lt - 1);
         sort(array, gt + 1, hi);
         assert isSorted(array, lo, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
     }
 
+    // sort a[lo .. hi] using insertion sort
+    private static void insertionSort(Comparable[] array, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && less(array[j], array[j - 1]); j--) {
+                exch(array, j, j - 1);
+            }
+        }
+    }
+
+    /**
+     * Rearranges the array in ascending order, using a comparator.
+     *
+     * @param array      the array to be sorted
+     * @param comparator the comparator specifying the order
+     */
+    public static void sort(Object[] array, Comparator comparator) {
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick3Way.sort", array.length);
+        StdRandom.shuffle(array);
+        sort(array, comparator, 0, array.length - 1);
+        assert isSorted(array, comparator, 0, array.length - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick3Way.sort", array.length);
+    }
+
+    // quicksort the subarray a[lo .. hi] using 3-way partitioning and a comparator
+    private static void sort(Object[] array, Comparator comparator, int lo, int hi) {
+        if (hi <= lo + INSERTION_CUTOFF) {
+            insertionSort(array, comparator, lo, hi);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        Object pivot = array[lo];
+        int lt = lo;
+        int i = lo + 1;
+        int gt = hi;
+
+        while (i <= gt) {
+            int cmp = comparator.compare(array[i], pivot);
+            if (SortProbes.ENABLED) SortProbes.compared();
+            if (cmp < 0) {
+                exch(array, i++, lt++);
+            } else if (cmp > 0) {
+                exch(array, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        // a[lo..lt-1] < pivot = a[lt..gt] < a[gt+1..hi].
+        sort(array, comparator, lo, lt - 1);
+        sort(array, comparator, gt + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // sort a[lo .. hi] using insertion sort and a comparator
+    private static void insertionSort(Object[] array, Comparator comparator, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && less(comparator, array[j], array[j - 1]); j--) {
+                exch(array, j, j - 1);
+            }
+        }
+    }
+
+    /***************************************************************************
+     *  Distinct keys and their counts.
+     ***************************************************************************/
+
+    /**
+     * The distinct keys of an array in ascending order, each with its number of occurrences.
+     */
+    public static class Distinct {
+        private Comparable[] keys = new Comparable[16];
+        private int[] counts = new int[16];
+        private int size;
+
+        // only instantiated by countDistinct()
+        private Distinct() {
+        }
+
+        /**
+         * Returns the number of distinct keys.
+         *
+         * @return the number of distinct keys
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Returns the i-th smallest distinct key.
+         *
+         * @param i the rank of the key among the distinct keys
+         * @return the i-th smallest distinct key
+         * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+         */
+        public Comparable key(int i) {
+            if (i < 0 || i >= size) throw new IllegalArgumentException("index " + i + " not in 0..." + (size - 1));
+            return keys[i];
+        }
+
+        /**
+         * Returns the number of occurrences of the i-th smallest distinct key.
+         *
+         * @param i the rank of the key among the distinct keys
+         * @return the number of items equal to {@code key(i)}
+         * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+         */
+        public int count(int i) {
+            if (i < 0 || i >= size) throw new IllegalArgumentException("index " + i + " not in 0..." + (size - 1));
+            return counts[i];
+        }
+
+        // append a key larger than all the keys so far
+        private void add(Comparable key, int count) {
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, 2 * size);
+                counts = Arrays.copyOf(counts, 2 * size);
+            }
+            keys[size] = key;
+            counts[size++] = count;
+        }
+    }
+
+    /**
+     * Returns the distinct keys of the array in ascending order with the number of occurrences of each,
+     * like sorting the array and running {@code uniq -c} over it.
+     * <p>
+     * The keys come straight out of the 3-way partitioning: the range of keys equal to each pivot is reported
+     * with its length, in order between the ranges less and greater than it, and never looked at again. The
+     * array is used as workspace and left in no particular order. With n items of which d are distinct, this
+     * takes O(n log d) compares, and linear time on arrays of a constant number of distinct keys.
+     *
+     * @param array the keys to count, rearranged in the process
+     * @return the distinct keys with their counts
+     */
+    public static Distinct countDistinct(Comparable[] array) {
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick3Way.countDistinct", array.length);
+        StdRandom.shuffle(array);
+        Distinct distinct = new Distinct();
+        countDistinct(array, 0, array.length - 1, distinct);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick3Way.countDistinct", array.length);
+        return distinct;
+    }
+
+    /**
+     * Rearranges the array so that its distinct keys come first, in ascending order, and returns their number.
+     * The duplicates are left after them in no particular order.
+     *
+     * @param array the array to be deduplicated
+     * @return the number d of distinct keys, which are in array[0...d)
+     */
+    public static int sortDistinct(Comparable[] array) {
+        Distinct distinct = countDistinct(array);
+        int d = distinct.size();
+        // the keys are a subset of the array's items, so every item can be written over except the duplicates
+        Comparable[] duplicates = new Comparable[array.length - d];
+        int k = 0;
+        for (int i = 0; i < d; i++) {
+            for (int c = 1; c < distinct.counts[i]; c++) {
+                duplicates[k++] = distinct.keys[i];
+            }
+        }
+        System.arraycopy(distinct.keys, 0, array, 0, d);
+        System.arraycopy(duplicates, 0, array, d, duplicates.length);
+        assert isSorted(array, 0, d - 1);
+        return d;
+    }
+
+    // add the distinct keys of a[lo .. hi] to distinct in ascending order, using 3-way partitioning
+    private static void countDistinct(Comparable[] array, int lo, int hi, Distinct distinct) {
+        if (hi <= lo + INSERTION_CUTOFF) {
+            insertionSort(array, lo, hi);
+            for (int i = lo; i <= hi; ) {
+                int j = i + 1;
+                while (j <= hi && !less(array[i], array[j])) j++;
+                distinct.add(array[i], j - i);
+                i = j;
+            }
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        Comparable pivot = array[lo];
+        int lt = lo;
+        int i = lo + 1;
+        int gt = hi;
+
+        while (i <= gt) {
+            if (less(array[i], pivot)) {
+                exch(array, i++, lt++);
+            } else if (less(pivot, array[i])) {
+                exch(array, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        // a[lo..lt-1] < pivot = a[lt..gt] < a[gt+1..hi], the keys equal to the pivot are counted in one go
+        countDistinct(array, lo, lt - 1, distinct);
+        distinct.add(pivot, gt - lt + 1);
+        countDistinct(array, gt + 1, hi, distinct);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    /***************************************************************************
+     *  Parallel 3-way quicksort.
+     ***************************************************************************/
+
+    // subarrays of at most this many items are sorted sequentially
+    public static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and all cores of the common fork/join pool.
+     *
+     * @param array the array to be sorted
+     */
+    public static void parallelSort(Comparable[] array) {
+        parallelSort(array, PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and all cores of the common fork/join pool.
+     * After each 3-way partition the less and greater parts are sorted as parallel tasks
+     * until they hold at most {@code threshold} items.
+     *
+     * @param array     the array to be sorted
+     * @param threshold size at or below which subarrays are sorted sequentially
+     * @throws IllegalArgumentException if {@code threshold < 1}
+     */
+    public static void parallelSort(Comparable[] array, int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException();
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick3Way.parallelSort", array.length);
+        StdRandom.shuffle(array);
+        Object sort = SortProbes.ENABLED ? SortProbes.currentSort() : null;
+        ForkJoinPool.commonPool().invoke(new SortTask(array, 0, array.length - 1, threshold, sort));
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick3Way.parallelSort", array.length);
+    }
+
+    @SuppressWarnings("serial")
+    private static class SortTask extends RecursiveAction {
+        private final Comparable[] array;
+        private final int lo;
+        private final int hi;
+        private final int threshold;
+        // handle of the sort for the probe, or null
+        private final Object sort;
+
+        SortTask(Comparable[] array, int lo, int hi, int threshold, Object sort) {
+            this.array = array;
+            this.lo = lo;
+            this.hi = hi;
+            this.threshold = threshold;
+            this.sort = sort;
+        }
+
+        @Override
+        protected void compute() {
+            if (SortProbes.ENABLED) SortProbes.taskStarted(sort);
+            try {
+                if (hi - lo < threshold) {
+                    sort(array, lo, hi);
+                    return;
+                }
+                Comparable pivot = array[lo];
+                int lt = lo;
+                int i = lo + 1;
+                int gt = hi;
+
+                while (i <= gt) {
+                    if (less(array[i], pivot)) {
+                        exch(array, i++, lt++);
+                    } else if (less(pivot, array[i])) {
+                        exch(array, i, gt--);
+                    } else {
+                        i++;
+                    }
+                }
+                // a[lo..lt-1] < pivot = a[lt..gt] < a[gt+1..hi], the keys equal to the pivot are done
+                invokeAll(new SortTask(array, lo, lt - 1, threshold, sort), new SortTask(array, gt + 1, hi, threshold, sort));
+            } finally {
+                if (SortProbes.ENABLED) SortProbes.taskFinished(sort);
+            }
+        }
+    }
+
+
+    /***************************************************************************
+     *  Primitive-specialized sorts.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick3Way.sort", to - from);
+        shuffle(array, from, to);
+        quicksort(array, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick3Way.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick3Way.sort", to - from);
+        shuffle(array, from, to);
+        quicksort(array, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick3Way.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Quick3Way.sort", to - from);
+        shuffle(array, from, to);
+        quicksort(array, from, to - 1);
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Quick3Way.sort", to - from);
+    }
+
+    // Knuth shuffle of array[from...to)
+    private static void shuffle(int[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            exch(array, i, StdRandom.uniform(from, i + 1));
+        }
+    }
+
+    // quicksort the subarray array[lo...hi] using 3-way partitioning
+    private static void quicksort(int[] array, int lo, int hi) {
+        if (hi <= lo) {
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        int pivot = array[lo];
+        int lt = lo;
+        int i = lo + 1;
+        int gt = hi;
+
+        while (i <= gt) {
+            if (less(array[i], pivot)) {
+                exch(array, i++, lt++);
+            } else if (less(pivot, array[i])) {
+                exch(array, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        // array[lo..lt-1] < pivot = array[lt..gt] < array[gt+1..hi].
+        quicksort(array, lo, lt - 1);
+        quicksort(array, gt + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // Knuth shuffle of array[from...to)
+    private static void shuffle(long[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            exch(array, i, StdRandom.uniform(from, i + 1));
+        }
+    }
+
+    // quicksort the subarray array[lo...hi] using 3-way partitioning
+    private static void quicksort(long[] array, int lo, int hi) {
+        if (hi <= lo) {
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        long pivot = array[lo];
+        int lt = lo;
+        int i = lo + 1;
+        int gt = hi;
+
+        while (i <= gt) {
+            if (less(array[i], pivot)) {
+                exch(array, i++, lt++);
+            } else if (less(pivot, array[i])) {
+                exch(array, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        // array[lo..lt-1] < pivot = array[lt..gt] < array[gt+1..hi].
+        quicksort(array, lo, lt - 1);
+        quicksort(array, gt + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // Knuth shuffle of array[from...to)
+    private static void shuffle(double[] array, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            exch(array, i, StdRandom.uniform(from, i + 1));
+        }
+    }
+
+    // quicksort the subarray array[lo...hi] using 3-way partitioning
+    private static void quicksort(double[] array, int lo, int hi) {
+        if (hi <= lo) {
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        double pivot = array[lo];
+        int lt = lo;
+        int i = lo + 1;
+        int gt = hi;
+
+        while (i <= gt) {
+            if (less(array[i], pivot)) {
+                exch(array, i++, lt++);
+            } else if (less(pivot, array[i])) {
+                exch(array, i, gt--);
+            } else {
+                i++;
+            }
+        }
+        // array[lo..lt-1] < pivot = array[lt..gt] < array[gt+1..hi].
+        quicksort(array, lo, lt - 1);
+        quicksort(array, gt + 1, hi);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
 
     /***************************************************************************
      *  Helper sorting functions.
@@ -54,16 +529,71 @@ public class Quick3Way {
 
     // is v < w ?
     private static boolean less(Comparable v, Comparable w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
         return v.compareTo(w) < 0;
     }
 
+    // is v < w ?
+    private static boolean less(Comparator comparator, Object v, Object w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return comparator.compare(v, w) < 0;
+    }
+
     // exchange a[i] and a[j]
     private static void exch(Object[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
         Object swap = a[i];
         a[i] = a[j];
         a[j] = swap;
     }
 
+    // is v < w ?
+    private static boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return Double.compare(v, w) < 0;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(int[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        int swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(long[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        long swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(double[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // is array[from...to) a valid subarray of an array of the given length?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
+    }
+
 
     /***************************************************************************
      *  Check if array is sorted - useful for debugging.
@@ -78,6 +608,34 @@ public class Quick3Way {
         return true;
     }
 
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(Object[] a, Comparator comparator, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(comparator, a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
 
     // print array to standard output
     private static void show(Comparable[] a) {
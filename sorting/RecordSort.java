@@ -0,0 +1,239 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * In-place sort of fixed-width binary records held in a {@link ByteBuffer}, heap, direct or memory-mapped.
+ * <p>
+ * Each record is {@code recordSize} bytes and starts with a {@code keySize}-byte key; records are ordered by
+ * their keys compared as unsigned bytes, which is the order of big-endian unsigned integers. Keys are
+ * compared in place, eight bytes at a time, and records are exchanged with bulk copies through two scratch
+ * arrays of one record each, so sorting allocates nothing per record and a memory-mapped file larger than
+ * the heap can be sorted without reading it in.
+ * <p>
+ * The sort is an introsort: median-of-3 quicksort, insertion sort for small subarrays and heapsort for
+ * subarrays still unsorted after 2 log2(n) levels of partitioning. It is not stable.
+ */
+public class RecordSort {
+    // cutoff to insertion sort
+    private static final int INSERTION_CUTOFF = 12;
+
+    // the state of one sort: the records, their layout and the scratch records used by exch
+    private final ByteBuffer buffer;
+    private final int base;
+    private final int recordSize;
+    private final int keySize;
+    private final byte[] scratch1;
+    private final byte[] scratch2;
+
+    // only instantiated by sort() to hold the state of one sort
+    private RecordSort(ByteBuffer buffer, int base, int recordSize, int keySize) {
+        this.buffer = buffer;
+        this.base = base;
+        this.recordSize = recordSize;
+        this.keySize = keySize;
+        this.scratch1 = new byte[recordSize];
+        this.scratch2 = new byte[recordSize];
+    }
+
+    /**
+     * Rearranges the records between the position and the limit of the buffer in ascending order of key.
+     * The position, limit and byte order of the buffer are left as they were.
+     *
+     * @param buffer     the records, back to back
+     * @param recordSize length of a record in bytes
+     * @param keySize    length of the key at the start of each record, in bytes
+     * @throws IllegalArgumentException unless {@code 0 < keySize <= recordSize} and the remaining bytes
+     *                                  of the buffer are a whole number of records
+     */
+    public static void sort(ByteBuffer buffer, int recordSize, int keySize) {
+        if (keySize < 1 || keySize > recordSize) throw new IllegalArgumentException("key size " + keySize + " not in 1..." + recordSize);
+        if (buffer.remaining() % recordSize != 0) {
+            throw new IllegalArgumentException(buffer.remaining() + " bytes is not a whole number of " + recordSize + " byte records");
+        }
+        int n = buffer.remaining() / recordSize;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("RecordSort.sort", n);
+        // keys are read as big-endian longs, whatever the order the caller uses
+        ByteBuffer records = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+        RecordSort sorter = new RecordSort(records, buffer.position(), recordSize, keySize);
+        sorter.introSort(0, n - 1, 2 * log2(n));
+        assert sorter.isSorted(n);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("RecordSort.sort", n);
+    }
+
+    /**
+     * Sorts the records of the file in place, through a memory mapping of the whole file.
+     * Only the pages being worked on need to be in memory, so the file can be larger than the heap,
+     * though not larger than the 2 GB a single mapping can cover.
+     *
+     * @param file       the file of records, back to back
+     * @param recordSize length of a record in bytes
+     * @param keySize    length of the key at the start of each record, in bytes
+     * @throws IOException              if the file cannot be mapped
+     * @throws IllegalArgumentException unless {@code 0 < keySize <= recordSize}, the file is a whole number
+     *                                  of records and it is at most {@code Integer.MAX_VALUE} bytes long
+     */
+    public static void sort(Path file, int recordSize, int keySize) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("file too large to map at once: " + size + " bytes");
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            sort(buffer, recordSize, keySize);
+            buffer.force();
+        }
+    }
+
+    /***************************************************************************
+     *  Introsort.
+     ***************************************************************************/
+
+    // quicksort records lo...hi, falling back to heapsort once depthLimit partitions deep
+    private void introSort(int lo, int hi, int depthLimit) {
+        if (hi <= lo + INSERTION_CUTOFF) {
+            insertionSort(lo, hi);
+            return;
+        }
+        if (depthLimit == 0) {
+            heapSort(lo, hi);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.entered();
+        exch(lo, median3(lo, lo + (hi - lo) / 2, hi));
+        int pivot = partition(lo, hi);
+        introSort(lo, pivot - 1, depthLimit - 1);
+        introSort(pivot + 1, hi, depthLimit - 1);
+        if (SortProbes.ENABLED) SortProbes.exited();
+    }
+
+    // partition records lo...hi around record lo, return its final position
+    private int partition(int lo, int hi) {
+        int i = lo;
+        int j = hi + 1;
+        while (true) {
+            while (less(++i, lo)) {
+                if (i == hi) break;
+            }
+            while (less(lo, --j)) {
+                if (j == lo) break;
+            }
+            if (i >= j) break;
+            exch(i, j);
+        }
+        exch(lo, j);
+        return j;
+    }
+
+    // index of the median of records i, j and k
+    private int median3(int i, int j, int k) {
+        if (less(i, j)) {
+            if (less(j, k)) return j;
+            return less(i, k) ? k : i;
+        }
+        if (less(k, j)) return j;
+        return less(k, i) ? k : i;
+    }
+
+    // sort records lo...hi using insertion sort
+    private void insertionSort(int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && less(j, j - 1); j--) {
+                exch(j, j - 1);
+            }
+        }
+    }
+
+    // sort records lo...hi using heapsort, heap node k is record lo + k - 1
+    private void heapSort(int lo, int hi) {
+        int n = hi - lo + 1;
+        for (int k = n / 2; k >= 1; k--) {
+            sink(lo - 1, k, n);
+        }
+        while (n > 1) {
+            exch(lo, lo + n - 1);
+            sink(lo - 1, 1, --n);
+        }
+    }
+
+    private void sink(int offset, int k, int n) {
+        while (2 * k <= n) {
+            int j = 2 * k;
+            if (j < n && less(offset + j, offset + j + 1)) j++;
+            if (!less(offset + k, offset + j)) break;
+            exch(offset + k, offset + j);
+            k = j;
+        }
+    }
+
+    // floor of the base 2 logarithm of n, 0 for n <= 1
+    private static int log2(int n) {
+        return n <= 1 ? 0 : 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    /***************************************************************************
+     *  Helper sorting functions.
+     ***************************************************************************/
+
+    // is the key of record v < the key of record w ?
+    private boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return compareKeys(base + v * recordSize, base + w * recordSize) < 0;
+    }
+
+    // compare the keys at byte offsets v and w as unsigned bytes, a long at a time while one fits
+    private int compareKeys(int v, int w) {
+        int i = 0;
+        for (; i + Long.BYTES <= keySize; i += Long.BYTES) {
+            long a = buffer.getLong(v + i);
+            long b = buffer.getLong(w + i);
+            if (a != b) return Long.compareUnsigned(a, b);
+        }
+        for (; i < keySize; i++) {
+            int a = Byte.toUnsignedInt(buffer.get(v + i));
+            int b = Byte.toUnsignedInt(buffer.get(w + i));
+            if (a != b) return a - b;
+        }
+        return 0;
+    }
+
+    // exchange records i and j
+    private void exch(int i, int j) {
+        if (i == j) return;
+        if (SortProbes.ENABLED) SortProbes.exchanged();
+        int v = base + i * recordSize;
+        int w = base + j * recordSize;
+        buffer.get(v, scratch1);
+        buffer.get(w, scratch2);
+        buffer.put(v, scratch2);
+        buffer.put(w, scratch1);
+    }
+
+    // are the n records in order?
+    private boolean isSorted(int n) {
+        for (int i = 1; i < n; i++)
+            if (compareKeys(base + i * recordSize, base + (i - 1) * recordSize) < 0) return false;
+        return true;
+    }
+
+    /**
+     * Sorts the file args[0] of records of args[1] bytes in place, by keys of their first args[2] bytes.
+     *
+     * @param args the command-line arguments
+     * @throws IOException if the file cannot be mapped
+     */
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(args[0]);
+        int recordSize = Integer.parseInt(args[1]);
+        int keySize = Integer.parseInt(args[2]);
+        RecordSort.sort(file, recordSize, keySize);
+        StdOut.println("sorted " + file);
+    }
+}
@@ -0,0 +1,231 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Parallel sample sort for Comparable arrays, on the common fork/join pool.
+ * <p>
+ * Parallel quicksort only has all cores busy once the first few partitions are done, and those are
+ * sequential passes over the whole array. Sample sort splits the array among all cores in one step instead:
+ * <ol>
+ *     <li>a random sample of {@link #OVERSAMPLING} items per bucket is sorted, and every
+ *     {@code OVERSAMPLING}-th item becomes a splitter;</li>
+ *     <li>the array is cut into one block per core, and each block's items are classified into buckets
+ *     in parallel, by binary search among the splitters, with a count of items per bucket kept per block;</li>
+ *     <li>the counts give each block its own region of every bucket, so the blocks scatter their items
+ *     into an aux array in parallel without synchronization;</li>
+ *     <li>the buckets are introsorted in parallel and copied back.</li>
+ * </ol>
+ * If the sample shows a splitter more than once, the items equal to each splitter get a bucket of their
+ * own, which needs no sorting; that keeps inputs with a few very frequent keys from loading one bucket with
+ * most of the array. The sort is not stable and uses n extra references and n chars of memory.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class SampleSort {
+    /**
+     * Arrays of fewer items are sorted sequentially.
+     */
+    public static final int SEQUENTIAL_THRESHOLD = 1 << 14;
+
+    /**
+     * Number of sampled items per bucket.
+     */
+    public static final int OVERSAMPLING = 16;
+
+    // buckets per core, so that a core finishing a small bucket early can take another one
+    private static final int BUCKETS_PER_CORE = 8;
+
+    // most buckets allowed, so that a bucket index of 2 * MAX_BUCKETS - 1 buckets fits in a char
+    private static final int MAX_BUCKETS = 1 << 12;
+
+    // minimum number of items per bucket and per classification block
+    private static final int MIN_BUCKET = 1 << 10;
+    private static final int MIN_BLOCK = 1 << 14;
+
+    // This class should not be instantiated.
+    private SampleSort() {
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and all cores of the common fork/join pool.
+     * The number of buckets is a few per core.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(Comparable[] array) {
+        int buckets = ForkJoinPool.getCommonPoolParallelism() * BUCKETS_PER_CORE;
+        sort(array, Math.max(2, Math.min(buckets, array.length / MIN_BUCKET)));
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order and all cores of the common fork/join pool.
+     *
+     * @param array   the array to be sorted
+     * @param buckets number of buckets the array is split into
+     * @throws IllegalArgumentException unless {@code 2 <= buckets <= 4096}
+     */
+    public static void sort(Comparable[] array, int buckets) {
+        if (buckets < 2 || buckets > MAX_BUCKETS) throw new IllegalArgumentException("buckets not in 2..." + MAX_BUCKETS + ": " + buckets);
+        int n = array.length;
+        if (n < SEQUENTIAL_THRESHOLD) {
+            Quick.introSort(array);
+            return;
+        }
+        if (SortProbes.ENABLED) SortProbes.sortStarted("SampleSort.sort", n);
+        Object sort = SortProbes.ENABLED ? SortProbes.currentSort() : null;
+        Comparable[] splitters = splitters(array, buckets);
+        boolean equalBuckets = hasDuplicates(splitters);
+
+        // classify: bucket of every item, and count of every bucket in every block
+        int blocks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), n / MIN_BLOCK));
+        int bucketCount = 2 * buckets - 1;
+        char[] bucketOf = new char[n];
+        int[][] counts = new int[blocks][bucketCount];
+        forEach(sort, blocks, b -> {
+            int[] count = counts[b];
+            for (int i = blockStart(n, blocks, b); i < blockStart(n, blocks, b + 1); i++) {
+                int bucket = bucket(splitters, array[i], equalBuckets);
+                bucketOf[i] = (char) bucket;
+                count[bucket]++;
+            }
+        });
+
+        // block b's items of bucket r go to aux[next[b][r]...], after those of the blocks before it
+        int[] bucketStart = new int[bucketCount + 1];
+        int[][] next = new int[blocks][bucketCount];
+        int offset = 0;
+        for (int r = 0; r < bucketCount; r++) {
+            bucketStart[r] = offset;
+            for (int b = 0; b < blocks; b++) {
+                next[b][r] = offset;
+                offset += counts[b][r];
+            }
+        }
+        bucketStart[bucketCount] = n;
+
+        Comparable[] aux = new Comparable[n];
+        forEach(sort, blocks, b -> {
+            int[] position = next[b];
+            for (int i = blockStart(n, blocks, b); i < blockStart(n, blocks, b + 1); i++) {
+                aux[position[bucketOf[i]]++] = array[i];
+            }
+        });
+        if (SortProbes.ENABLED) SortProbes.wrote(n);
+
+        // sort the buckets, the odd ones hold keys equal to a splitter and are already sorted
+        forEach(sort, bucketCount, r -> {
+            int lo = bucketStart[r];
+            int hi = bucketStart[r + 1] - 1;
+            if (r % 2 == 0) Quick.introSort(aux, lo, hi);
+            if (hi >= lo) System.arraycopy(aux, lo, array, lo, hi - lo + 1);
+        });
+        if (SortProbes.ENABLED) SortProbes.wrote(n);
+        assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("SampleSort.sort", n);
+    }
+
+    // the buckets - 1 splitters, in ascending order, picked from a sorted random sample
+    private static Comparable[] splitters(Comparable[] array, int buckets) {
+        SplittableRandom random = new SplittableRandom();
+        Comparable[] sample = new Comparable[buckets * OVERSAMPLING];
+        for (int i = 0; i < sample.length; i++) {
+            sample[i] = array[random.nextInt(array.length)];
+        }
+        Quick.introSort(sample, 0, sample.length - 1);
+        Comparable[] splitters = new Comparable[buckets - 1];
+        for (int i = 0; i < splitters.length; i++) {
+            splitters[i] = sample[(i + 1) * OVERSAMPLING - 1];
+        }
+        return splitters;
+    }
+
+    // does the sorted array hold the same key twice?
+    private static boolean hasDuplicates(Comparable[] sorted) {
+        for (int i = 1; i < sorted.length; i++)
+            if (!less(sorted[i - 1], sorted[i])) return true;
+        return false;
+    }
+
+    /**
+     * Returns the bucket of the key: 2r if exactly r splitters are less than or equal to it, or 2r - 1
+     * if it is equal to the r-th of them and keys equal to a splitter get their own buckets.
+     */
+    private static int bucket(Comparable[] splitters, Comparable key, boolean equalBuckets) {
+        int lo = 0;
+        int hi = splitters.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (less(key, splitters[mid])) hi = mid;
+            else lo = mid + 1;
+        }
+        if (equalBuckets && lo > 0 && !less(splitters[lo - 1], key)) return 2 * lo - 1;
+        return 2 * lo;
+    }
+
+    // index of the first item of block b
+    private static int blockStart(int n, int blocks, int b) {
+        return (int) ((long) n * b / blocks);
+    }
+
+    // runs body for every index in [0, count), in parallel when there are several,
+    // counting the work of the tasks for the given sort of the probe
+    private static void forEach(Object sort, int count, IntConsumer body) {
+        if (count == 1) {
+            body.accept(0);
+            return;
+        }
+        ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[count];
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks[i] = ForkJoinTask.adapt(() -> {
+                if (SortProbes.ENABLED) SortProbes.taskStarted(sort);
+                try {
+                    body.accept(index);
+                } finally {
+                    if (SortProbes.ENABLED) SortProbes.taskFinished(sort);
+                }
+            });
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    /***************************************************************************
+     *  Helper sorting functions.
+     ***************************************************************************/
+
+    // is v < w ?
+    private static boolean less(Comparable v, Comparable w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v.compareTo(w) < 0;
+    }
+
+    /***************************************************************************
+     *  Check if array is sorted - useful for debugging.
+     ***************************************************************************/
+
+    private static boolean isSorted(Comparable[] a) {
+        for (int i = 1; i < a.length; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    /**
+     * Reads in a sequence of strings from standard input; sample sorts them;
+     * and prints them to standard output in ascending order.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        String[] a = StdIn.readAllStrings();
+        SampleSort.sort(a);
+        for (String s : a) {
+            StdOut.println(s);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package sorting;
+
+import java.util.Arrays;
+
+/**
+ * Aux arrays kept per thread for the merge sorts of this package, so that sorting many arrays of up to
+ * {@link #MAX_POOLED} items allocates nothing once the buffers of a thread have grown to size.
+ * <p>
+ * A buffer is taken out of its thread's slot while a sort uses it and put back by {@link #release}, so a sort
+ * started from inside another one on the same thread, by a comparator for instance, gets a fresh array
+ * instead of the one in use. Larger requests are always freshly allocated, so that a thread keeps at most
+ * {@code MAX_POOLED} references alive per buffer between sorts, and released buffers of references are
+ * cleared so that they keep no sorted items reachable.
+ */
+@SuppressWarnings("rawtypes")
+final class ScratchBuffers {
+    /**
+     * Largest aux array kept for reuse.
+     */
+    static final int MAX_POOLED = 1 << 16;
+
+    private static final Comparable[] NO_COMPARABLES = new Comparable[0];
+    private static final Object[] NO_OBJECTS = new Object[0];
+    private static final int[] NO_INTS = new int[0];
+
+    private static final ThreadLocal<Comparable[]> COMPARABLES = ThreadLocal.withInitial(() -> NO_COMPARABLES);
+    private static final ThreadLocal<Object[]> OBJECTS = ThreadLocal.withInitial(() -> NO_OBJECTS);
+    private static final ThreadLocal<int[]> INTS = ThreadLocal.withInitial(() -> NO_INTS);
+
+    // This class should not be instantiated.
+    private ScratchBuffers() {
+    }
+
+    /**
+     * Returns an aux array of at least n items for a sort of Comparables, to be handed back to {@link #release}.
+     */
+    static Comparable[] takeComparables(int n) {
+        if (n > MAX_POOLED) return new Comparable[n];
+        Comparable[] buffer = COMPARABLES.get();
+        COMPARABLES.set(NO_COMPARABLES);
+        return buffer.length >= n ? buffer : new Comparable[capacity(buffer.length, n)];
+    }
+
+    /**
+     * Returns an aux array of at least n items for a sort with a comparator, to be handed back to {@link #release}.
+     */
+    static Object[] takeObjects(int n) {
+        if (n > MAX_POOLED) return new Object[n];
+        Object[] buffer = OBJECTS.get();
+        OBJECTS.set(NO_OBJECTS);
+        return buffer.length >= n ? buffer : new Object[capacity(buffer.length, n)];
+    }
+
+    /**
+     * Returns an aux array of at least n indices for a sort of indices, to be handed back to {@link #release}.
+     */
+    static int[] takeInts(int n) {
+        if (n > MAX_POOLED) return new int[n];
+        int[] buffer = INTS.get();
+        INTS.set(NO_INTS);
+        return buffer.length >= n ? buffer : new int[capacity(buffer.length, n)];
+    }
+
+    /**
+     * Clears the first n items of a buffer returned by one of the take methods and keeps it for the next sort
+     * on this thread, unless it is too large to keep.
+     */
+    static void release(Comparable[] buffer, int n) {
+        if (buffer.length > MAX_POOLED) return;
+        Arrays.fill(buffer, 0, n, null);
+        COMPARABLES.set(buffer);
+    }
+
+    /**
+     * Clears the first n items of a buffer returned by one of the take methods and keeps it for the next sort
+     * on this thread, unless it is too large to keep.
+     */
+    static void release(Object[] buffer, int n) {
+        if (buffer.length > MAX_POOLED) return;
+        Arrays.fill(buffer, 0, n, null);
+        OBJECTS.set(buffer);
+    }
+
+    /**
+     * Keeps a buffer returned by {@link #takeInts} for the next sort on this thread, unless it is too large to keep.
+     */
+    static void release(int[] buffer) {
+        if (buffer.length > MAX_POOLED) return;
+        INTS.set(buffer);
+    }
+
+    // grow geometrically, so that a thread sorting slowly growing arrays reallocates only log(MAX_POOLED) times
+    private static int capacity(int length, int n) {
+        return Math.min(MAX_POOLED, Math.max(n, 2 * length));
+    }
+}
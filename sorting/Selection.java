@@ -41,6 +41,7 @@ public class Selection {
      */
     public static void sort(Comparable[] array) {
         int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Selection.sort", n);
         for (int i = 0; i < n; i++) {
             int min = i;
             for (int j = i + 1; j < n; j++) {
@@ -52,6 +53,7 @@ public class Selection {
             exch(array, i, min);
         }
         assert isSorted(array);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Selection.sort", n);
     }
 
     /**
@@ -62,6 +64,7 @@ public class Selection {
      */
     public static void sort(Object[] array, Comparator comparator) {
         int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Selection.sort", n);
         for (int i = 0; i < n; i++) {
             int min = i;
             for (int j = i + 1; j < n; j++) {
@@ -73,6 +76,104 @@ public class Selection {
             exch(array, i, min);
         }
         assert isSorted(array, comparator);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Selection.sort", n);
+    }
+
+    /***************************************************************************
+     *  Primitive-specialized sorts.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        for (int i = from; i < to; i++) {
+            int min = i;
+            for (int j = i + 1; j < to; j++) {
+                if (less(array[j], array[min])) {
+                    min = j;
+                }
+            }
+            exch(array, i, min);
+        }
+        assert isSorted(array, from, to - 1);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        for (int i = from; i < to; i++) {
+            int min = i;
+            for (int j = i + 1; j < to; j++) {
+                if (less(array[j], array[min])) {
+                    min = j;
+                }
+            }
+            exch(array, i, min);
+        }
+        assert isSorted(array, from, to - 1);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        for (int i = from; i < to; i++) {
+            int min = i;
+            for (int j = i + 1; j < to; j++) {
+                if (less(array[j], array[min])) {
+                    min = j;
+                }
+            }
+            exch(array, i, min);
+        }
+        assert isSorted(array, from, to - 1);
     }
 
     /***************************************************************************
@@ -81,22 +182,66 @@ public class Selection {
 
     // is v < w ?
     private static boolean less(Comparable v, Comparable w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
         return v.compareTo(w) < 0;
     }
 
     // is v < w ?
     private static boolean less(Comparator comparator, Object v, Object w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
         return comparator.compare(v, w) < 0;
     }
 
 
     // exchange a[i] and a[j]
     private static void exch(Object[] a, int i, int j) {
+        if (SortProbes.ENABLED) SortProbes.exchanged();
         Object swap = a[i];
         a[i] = a[j];
         a[j] = swap;
     }
 
+    // is v < w ?
+    private static boolean less(int v, int w) {
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        return Double.compare(v, w) < 0;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(int[] a, int i, int j) {
+        int swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(long[] a, int i, int j) {
+        long swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(double[] a, int i, int j) {
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // is array[from...to) a valid subarray of an array of the given length?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
+    }
+
     /***************************************************************************
      *  Check if array is sorted - useful for debugging.
      ***************************************************************************/
@@ -125,6 +270,27 @@ public class Selection {
         return true;
     }
 
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
+    }
+
     // print array to standard output
     private static void show(Comparable[] a) {
         for (Comparable objectComparable : a) {
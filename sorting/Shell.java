@@ -3,94 +3,328 @@ package sorting;
 import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 
+import java.util.Arrays;
 import java.util.Comparator;
 
-@SuppressWarnings("rawtypes")
+@SuppressWarnings({"rawtypes", "unchecked"})
 public class Shell {
     // This class should not be instantiated.
     private Shell() {
     }
 
     /**
-     * Computes the max value of x for (3x+1) h increments
-     *
-     * @param n length of the array
+     * Gap sequences the array can be h-sorted with, from the largest gap below the array length down to 1.
      */
-    private static int getMaxX(int n) {
-        return (n - 1) / 3;
+    public enum Gaps {
+        /**
+         * Knuth's 3h + 1: 1, 4, 13, 40, 121, ..., O(n^1.5) compares in the worst case.
+         */
+        KNUTH(knuth()),
+
+        /**
+         * Ciura's empirically best 1, 4, 10, 23, 57, 132, 301, 701, 1750, extended by h = 2.25 h.
+         */
+        CIURA(ciura()),
+
+        /**
+         * Tokuda's ceil((9^k - 4^k) / (5 * 4^(k-1))): 1, 4, 9, 20, 46, 103, 233, ...
+         */
+        TOKUDA(tokuda()),
+
+        /**
+         * Sedgewick's 4^k + 3 * 2^(k-1) + 1: 1, 8, 23, 77, 281, 1073, ..., O(n^(4/3)) compares in the worst case.
+         */
+        SEDGEWICK(sedgewick());
+
+        // the gaps in ascending order, up to the largest one below Integer.MAX_VALUE
+        private final int[] gaps;
+
+        Gaps(int[] gaps) {
+            this.gaps = gaps;
+        }
+
+        // index of the largest gap that is less than n, or -1 if n <= 1
+        private int start(int n) {
+            int k = gaps.length - 1;
+            while (k >= 0 && gaps[k] >= n) k--;
+            return k;
+        }
     }
 
-    /**
-     * h sort the array, implemented with insertion sort with a stride length h, using the natural order.
-     *
-     * @param array the array to be sorted
-     * @param h     stride length
-     * @param n     length of the array
-     */
-    private static void hSort(Comparable[] array, int h, int n) {
-        for (int i = h; i < n; i += h) {
-            // exchange array[i] with each larger entry on the left
-            for (int j = i; j >= h; j -= h) {
-                if (less(array[j], array[j - h])) {
-                    exch(array, j, j - h);
-                } else {
-                    break;
-                }
-            }
+    private static int[] knuth() {
+        int[] gaps = new int[20];
+        int count = 0;
+        for (long h = 1; h < Integer.MAX_VALUE; h = 3 * h + 1) {
+            gaps[count++] = (int) h;
         }
+        return Arrays.copyOf(gaps, count);
+    }
+
+    private static int[] ciura() {
+        int[] gaps = new int[40];
+        int[] measured = {1, 4, 10, 23, 57, 132, 301, 701, 1750};
+        System.arraycopy(measured, 0, gaps, 0, measured.length);
+        int count = measured.length;
+        for (long h = (long) (2.25 * gaps[count - 1]); h < Integer.MAX_VALUE; h = (long) (2.25 * h)) {
+            gaps[count++] = (int) h;
+        }
+        return Arrays.copyOf(gaps, count);
+    }
+
+    private static int[] tokuda() {
+        int[] gaps = new int[40];
+        int count = 0;
+        // h_k = ceil(x_k) with x_1 = 1 and x_k = 2.25 x_(k-1) + 1
+        for (double x = 1; x < Integer.MAX_VALUE; x = 2.25 * x + 1) {
+            gaps[count++] = (int) Math.ceil(x);
+        }
+        return Arrays.copyOf(gaps, count);
+    }
+
+    private static int[] sedgewick() {
+        int[] gaps = new int[20];
+        gaps[0] = 1;
+        int count = 1;
+        for (long k = 1, h = 8; h < Integer.MAX_VALUE; k++, h = (1L << (2 * k)) + 3 * (1L << (k - 1)) + 1) {
+            gaps[count++] = (int) h;
+        }
+        return Arrays.copyOf(gaps, count);
     }
 
     /**
-     * h sort the array, implemented with insertion sort with a stride length h, using a comparator.
+     * h sort array[0...n), implemented with insertion sort with a stride length h.
+     * Every one of the h interleaved chains array[r], array[r + h], array[r + 2h], ... is sorted:
+     * each item is shifted left along its own chain past the larger items.
      *
      * @param array      the array to be sorted
-     * @param comparator the comparator specifying the order
+     * @param comparator the comparator specifying the order, or null for the natural order
      * @param h          stride length
      * @param n          length of the array
      */
-    private static void hSort(Comparable[] array, Comparator comparator, int h, int n) {
-        for (int i = h; i < n; i += h) {
-            // exchange array[i] with each larger entry on the left
-            for (int j = i; j >= h; j -= h) {
-                if (less(comparator, array[j], array[j - h])) {
-                    exch(array, j, j - h);
-                } else {
-                    break;
-                }
+    private static void hSort(Object[] array, Comparator comparator, int h, int n) {
+        for (int i = h; i < n; i++) {
+            // shift each larger entry h positions on the left h positions right
+            Object item = array[i];
+            int j = i;
+            while (j >= h && less(comparator, item, array[j - h])) {
+                array[j] = array[j - h];
+                j -= h;
+            }
+            if (j != i) {
+                array[j] = item;
+                if (SortProbes.ENABLED) SortProbes.wrote((i - j) / h + 1);
             }
         }
     }
 
     /**
-     * Rearranges the array in ascending order, using the natural order.
+     * Rearranges the array in ascending order, using the natural order and Ciura's gaps.
      *
      * @param array the array to be sorted
      */
     public static void sort(Comparable[] array) {
-        int n = array.length;
+        sort(array, null, Gaps.CIURA);
+    }
 
-        // 3x + 1
-        for (int x = getMaxX(n); x >= 0; x--) {
-            int h = 3 * x + 1;
-            hSort(array, h, n);
-        }
-        assert isSorted(array);
+    /**
+     * Rearranges the array in ascending order, using the natural order and the given gaps.
+     *
+     * @param array the array to be sorted
+     * @param gaps  the gap sequence
+     */
+    public static void sort(Comparable[] array, Gaps gaps) {
+        sort(array, null, gaps);
     }
 
     /**
-     * Rearranges the array in ascending order, using a comparator.
+     * Rearranges the array in ascending order, using a comparator and Ciura's gaps.
      *
      * @param array      the array
      * @param comparator the comparator specifying the order
      */
     public static void sort(Comparable[] array, Comparator comparator) {
+        sort(array, comparator, Gaps.CIURA);
+    }
+
+    /**
+     * Rearranges the array in ascending order, using a comparator and the given gaps.
+     * The array is h-sorted for each gap of the sequence below its length, from the largest down to 1.
+     *
+     * @param array      the array
+     * @param comparator the comparator specifying the order, or null for the natural order
+     * @param gaps       the gap sequence
+     * @throws IllegalArgumentException if the gap sequence is null
+     */
+    public static void sort(Object[] array, Comparator comparator, Gaps gaps) {
+        if (gaps == null) throw new IllegalArgumentException();
         int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Shell.sort", n);
 
-        for (int x = getMaxX(n); x >= 0; x--) {
-            int h = 3 * x + 1;
-            hSort(array, comparator, h, n);
+        for (int k = gaps.start(n); k >= 0; k--) {
+            hSort(array, comparator, gaps.gaps[k], n);
         }
         assert isSorted(array, comparator);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Shell.sort", n);
+    }
+
+    /***************************************************************************
+     *  Primitive-specialized sorts.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Shell.sort", to - from);
+        int n = to - from;
+
+        int[] gaps = Gaps.CIURA.gaps;
+        for (int k = Gaps.CIURA.start(n); k >= 0; k--) {
+            hSort(array, gaps[k], from, to);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Shell.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Shell.sort", to - from);
+        int n = to - from;
+
+        int[] gaps = Gaps.CIURA.gaps;
+        for (int k = Gaps.CIURA.start(n); k >= 0; k--) {
+            hSort(array, gaps[k], from, to);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Shell.sort", to - from);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        sort(array, 0, array.length);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Shell.sort", to - from);
+        int n = to - from;
+
+        int[] gaps = Gaps.CIURA.gaps;
+        for (int k = Gaps.CIURA.start(n); k >= 0; k--) {
+            hSort(array, gaps[k], from, to);
+        }
+        assert isSorted(array, from, to - 1);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Shell.sort", to - from);
+    }
+
+    /**
+     * h sort array[from...to), implemented with insertion sort with a stride length h.
+     *
+     * @param array the array to be sorted
+     * @param h     stride length
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     */
+    private static void hSort(int[] array, int h, int from, int to) {
+        for (int i = from + h; i < to; i++) {
+            // shift each larger entry h positions on the left h positions right
+            int item = array[i];
+            int j = i;
+            while (j >= from + h && less(item, array[j - h])) {
+                array[j] = array[j - h];
+                j -= h;
+            }
+            array[j] = item;
+            if (SortProbes.ENABLED) SortProbes.wrote((i - j) / h + 1);
+        }
+    }
+
+    /**
+     * h sort array[from...to), implemented with insertion sort with a stride length h.
+     *
+     * @param array the array to be sorted
+     * @param h     stride length
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     */
+    private static void hSort(long[] array, int h, int from, int to) {
+        for (int i = from + h; i < to; i++) {
+            // shift each larger entry h positions on the left h positions right
+            long item = array[i];
+            int j = i;
+            while (j >= from + h && less(item, array[j - h])) {
+                array[j] = array[j - h];
+                j -= h;
+            }
+            array[j] = item;
+            if (SortProbes.ENABLED) SortProbes.wrote((i - j) / h + 1);
+        }
+    }
+
+    /**
+     * h sort array[from...to), implemented with insertion sort with a stride length h.
+     *
+     * @param array the array to be sorted
+     * @param h     stride length
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     */
+    private static void hSort(double[] array, int h, int from, int to) {
+        for (int i = from + h; i < to; i++) {
+            // shift each larger entry h positions on the left h positions right
+            double item = array[i];
+            int j = i;
+            while (j >= from + h && less(item, array[j - h])) {
+                array[j] = array[j - h];
+                j -= h;
+            }
+            array[j] = item;
+            if (SortProbes.ENABLED) SortProbes.wrote((i - j) / h + 1);
+        }
     }
 
     /***************************************************************************
@@ -98,21 +332,37 @@ public class Shell {
      ***************************************************************************/
 
     // is v < w ?
-    private static boolean less(Comparable v, Comparable w) {
-        return v.compareTo(w) < 0;
+    private static boolean less(Comparator comparator, Object v, Object w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        if (comparator == null) {
+            return ((Comparable) v).compareTo(w) < 0;
+        } else {
+            return comparator.compare(v, w) < 0;
+        }
     }
 
+
     // is v < w ?
-    private static boolean less(Comparator comparator, Object v, Object w) {
-        return comparator.compare(v, w) < 0;
+    private static boolean less(int v, int w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
+    }
+
+    // is v < w ?
+    private static boolean less(long v, long w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return v < w;
     }
 
+    // is v < w ?
+    private static boolean less(double v, double w) {
+        if (SortProbes.ENABLED) SortProbes.compared();
+        return Double.compare(v, w) < 0;
+    }
 
-    // exchange a[i] and a[j]
-    private static void exch(Object[] a, int i, int j) {
-        Object swap = a[i];
-        a[i] = a[j];
-        a[j] = swap;
+    // is array[from...to) a valid subarray of an array of the given length?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
     }
 
     /***************************************************************************
@@ -120,26 +370,35 @@ public class Shell {
      ***************************************************************************/
 
     // is the array a[] sorted?
-    private static boolean isSorted(Comparable[] a) {
-        return isSorted(a, 0, a.length - 1);
+    private static boolean isSorted(Object[] a, Comparator comparator) {
+        return isSorted(a, comparator, 0, a.length - 1);
     }
 
     // is the array sorted from a[lo] to a[hi]
-    private static boolean isSorted(Comparable[] a, int lo, int hi) {
+    private static boolean isSorted(Object[] a, Comparator comparator, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(comparator, a[i], a[i - 1])) return false;
+        return true;
+    }
+
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(int[] a, int lo, int hi) {
         for (int i = lo + 1; i <= hi; i++)
             if (less(a[i], a[i - 1])) return false;
         return true;
     }
 
-    // is the array a[] sorted?
-    private static boolean isSorted(Object[] a, Comparator comparator) {
-        return isSorted(a, comparator, 0, a.length - 1);
+    // is the array sorted from a[lo] to a[hi]
+    private static boolean isSorted(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i <= hi; i++)
+            if (less(a[i], a[i - 1])) return false;
+        return true;
     }
 
     // is the array sorted from a[lo] to a[hi]
-    private static boolean isSorted(Object[] a, Comparator comparator, int lo, int hi) {
+    private static boolean isSorted(double[] a, int lo, int hi) {
         for (int i = lo + 1; i <= hi; i++)
-            if (less(comparator, a[i], a[i - 1])) return false;
+            if (less(a[i], a[i - 1])) return false;
         return true;
     }
 
@@ -4,7 +4,25 @@ import edu.princeton.cs.algs4.StdIn;
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
 
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Uniformly random shuffles.
+ * <p>
+ * The public shuffles take a seed or a {@link SplittableRandom}, so that a shuffle can be replayed, and
+ * unlike {@link StdRandom} they share no synchronized state between threads. {@code shuffle} is the
+ * Fisher-Yates shuffle; {@code parallelShuffle} is MergeShuffle, which shuffles blocks in parallel and then
+ * merges them by coin flips, and gives the same permutation for the same seed whatever the number of cores.
+ */
 public class Shuffle {
+    /**
+     * Blocks of at most this many items are Fisher-Yates shuffled sequentially by {@code parallelShuffle}.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // This class should not be instantiated.
     private Shuffle() {
     }
 
@@ -31,7 +49,7 @@ public class Shuffle {
     }
 
     /**
-     * Shuffle the array using sort shuffle, using insertion sort
+     * Shuffle the array using sort shuffle: every item gets a random key, and the items are merge sorted by key
      *
      * @param array the array to be shuffled
      */
@@ -43,7 +61,7 @@ public class Shuffle {
             items[i] = new Item(StdRandom.uniform(0.0, 1.0), array[i]);
         }
 
-        Insertion.sort(items);
+        Merge.sort(items);
 
         // update the array based on the sorted random numbers (shuffle)
         for (int i = 0; i < n; i++) {
@@ -64,6 +82,332 @@ public class Shuffle {
         }
     }
 
+    /***************************************************************************
+     *  Fisher-Yates shuffle.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in uniformly random order.
+     *
+     * @param array the array to be shuffled
+     * @param seed  seed of the random generator, the same seed gives the same order
+     */
+    public static void shuffle(Object[] array, long seed) {
+        shuffle(array, new SplittableRandom(seed));
+    }
+
+    /**
+     * Rearranges the array in uniformly random order.
+     *
+     * @param array  the array to be shuffled
+     * @param random the random generator
+     */
+    public static void shuffle(Object[] array, SplittableRandom random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            exch(array, i, random.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * Rearranges the array in uniformly random order.
+     *
+     * @param array the array to be shuffled
+     * @param seed  seed of the random generator, the same seed gives the same order
+     */
+    public static void shuffle(int[] array, long seed) {
+        shuffle(array, new SplittableRandom(seed));
+    }
+
+    /**
+     * Rearranges the array in uniformly random order.
+     *
+     * @param array  the array to be shuffled
+     * @param random the random generator
+     */
+    public static void shuffle(int[] array, SplittableRandom random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            exch(array, i, random.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * Rearranges the array in uniformly random order.
+     *
+     * @param array the array to be shuffled
+     * @param seed  seed of the random generator, the same seed gives the same order
+     */
+    public static void shuffle(long[] array, long seed) {
+        shuffle(array, new SplittableRandom(seed));
+    }
+
+    /**
+     * Rearranges the array in uniformly random order.
+     *
+     * @param array  the array to be shuffled
+     * @param random the random generator
+     */
+    public static void shuffle(long[] array, SplittableRandom random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            exch(array, i, random.nextInt(i + 1));
+        }
+    }
+
+    /**
+     * Rearranges the array in uniformly random order.
+     *
+     * @param array the array to be shuffled
+     * @param seed  seed of the random generator, the same seed gives the same order
+     */
+    public static void shuffle(double[] array, long seed) {
+        shuffle(array, new SplittableRandom(seed));
+    }
+
+    /**
+     * Rearranges the array in uniformly random order.
+     *
+     * @param array  the array to be shuffled
+     * @param random the random generator
+     */
+    public static void shuffle(double[] array, SplittableRandom random) {
+        for (int i = array.length - 1; i > 0; i--) {
+            exch(array, i, random.nextInt(i + 1));
+        }
+    }
+
+    /***************************************************************************
+     *  Parallel MergeShuffle.
+     ***************************************************************************/
+
+    /**
+     * Rearranges the array in uniformly random order, using all cores of the common fork/join pool.
+     * The order only depends on the seed, not on how the work was scheduled.
+     *
+     * @param array the array to be shuffled
+     * @param seed  seed of the random generator, the same seed gives the same order
+     */
+    public static void parallelShuffle(Object[] array, long seed) {
+        parallelShuffle(array, array.length, seed);
+    }
+
+    /**
+     * Rearranges the array in uniformly random order, using all cores of the common fork/join pool.
+     * The order only depends on the seed, not on how the work was scheduled.
+     *
+     * @param array the array to be shuffled
+     * @param seed  seed of the random generator, the same seed gives the same order
+     */
+    public static void parallelShuffle(int[] array, long seed) {
+        parallelShuffle(array, array.length, seed);
+    }
+
+    /**
+     * Rearranges the array in uniformly random order, using all cores of the common fork/join pool.
+     * The order only depends on the seed, not on how the work was scheduled.
+     *
+     * @param array the array to be shuffled
+     * @param seed  seed of the random generator, the same seed gives the same order
+     */
+    public static void parallelShuffle(long[] array, long seed) {
+        parallelShuffle(array, array.length, seed);
+    }
+
+    /**
+     * Rearranges the array in uniformly random order, using all cores of the common fork/join pool.
+     * The order only depends on the seed, not on how the work was scheduled.
+     *
+     * @param array the array to be shuffled
+     * @param seed  seed of the random generator, the same seed gives the same order
+     */
+    public static void parallelShuffle(double[] array, long seed) {
+        parallelShuffle(array, array.length, seed);
+    }
+
+    // array is an Object[], int[], long[] or double[] of n items
+    private static void parallelShuffle(Object array, int n, long seed) {
+        ForkJoinPool.commonPool().invoke(new ShuffleTask(array, 0, n, new SplittableRandom(seed)));
+    }
+
+    /**
+     * Shuffles array[lo...hi): blocks of at most PARALLEL_THRESHOLD items are Fisher-Yates shuffled,
+     * larger ones shuffle their two halves as parallel tasks and merge them.
+     * Each task splits the generators of its halves off its own before forking them, so every block
+     * always draws from the same generator. The array is one of the four array types; each block and
+     * merge dispatches on it once, and then runs a loop specialized for that type.
+     */
+    @SuppressWarnings("serial")
+    private static class ShuffleTask extends RecursiveAction {
+        private final Object array;
+        private final int lo;
+        private final int hi;
+        private final SplittableRandom random;
+
+        ShuffleTask(Object array, int lo, int hi, SplittableRandom random) {
+            this.array = array;
+            this.lo = lo;
+            this.hi = hi;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= PARALLEL_THRESHOLD) {
+                if (array instanceof int[]) shuffle((int[]) array, lo, hi, random);
+                else if (array instanceof long[]) shuffle((long[]) array, lo, hi, random);
+                else if (array instanceof double[]) shuffle((double[]) array, lo, hi, random);
+                else shuffle((Object[]) array, lo, hi, random);
+                return;
+            }
+            int mid = lo + (hi - lo) / 2;
+            SplittableRandom left = random.split();
+            SplittableRandom right = random.split();
+            invokeAll(new ShuffleTask(array, lo, mid, left), new ShuffleTask(array, mid, hi, right));
+            if (array instanceof int[]) merge((int[]) array, lo, mid, hi, random);
+            else if (array instanceof long[]) merge((long[]) array, lo, mid, hi, random);
+            else if (array instanceof double[]) merge((double[]) array, lo, mid, hi, random);
+            else merge((Object[]) array, lo, mid, hi, random);
+        }
+    }
+
+    // Fisher-Yates shuffle array[lo...hi)
+    private static void shuffle(Object[] array, int lo, int hi, SplittableRandom random) {
+        for (int i = hi - 1; i > lo; i--) {
+            exch(array, i, lo + random.nextInt(i - lo + 1));
+        }
+    }
+
+    // Fisher-Yates shuffle array[lo...hi)
+    private static void shuffle(int[] array, int lo, int hi, SplittableRandom random) {
+        for (int i = hi - 1; i > lo; i--) {
+            exch(array, i, lo + random.nextInt(i - lo + 1));
+        }
+    }
+
+    // Fisher-Yates shuffle array[lo...hi)
+    private static void shuffle(long[] array, int lo, int hi, SplittableRandom random) {
+        for (int i = hi - 1; i > lo; i--) {
+            exch(array, i, lo + random.nextInt(i - lo + 1));
+        }
+    }
+
+    // Fisher-Yates shuffle array[lo...hi)
+    private static void shuffle(double[] array, int lo, int hi, SplittableRandom random) {
+        for (int i = hi - 1; i > lo; i--) {
+            exch(array, i, lo + random.nextInt(i - lo + 1));
+        }
+    }
+
+    /**
+     * Merges the shuffled array[lo...mid) and array[mid...hi) into a shuffled array[lo...hi).
+     * A coin flip picks the next item from either run until one runs out; the items left over are then
+     * inserted at uniformly random positions, as in the Fisher-Yates shuffle.
+     */
+    private static void merge(Object[] array, int lo, int mid, int hi, SplittableRandom random) {
+        int i = lo;
+        int j = mid;
+        long coins = 0;
+        int flips = 0;
+        while (true) {
+            if (flips == 0) {
+                coins = random.nextLong();
+                flips = 64;
+            }
+            boolean fromRight = (coins & 1) != 0;
+            coins >>>= 1;
+            flips--;
+            if (fromRight) {
+                if (j == hi) break;
+                exch(array, i, j++);
+            } else if (i == j) {
+                break;
+            }
+            i++;
+        }
+        for (; i < hi; i++) {
+            exch(array, i, lo + random.nextInt(i - lo + 1));
+        }
+    }
+
+    // merge the shuffled array[lo...mid) and array[mid...hi) into a shuffled array[lo...hi)
+    private static void merge(int[] array, int lo, int mid, int hi, SplittableRandom random) {
+        int i = lo;
+        int j = mid;
+        long coins = 0;
+        int flips = 0;
+        while (true) {
+            if (flips == 0) {
+                coins = random.nextLong();
+                flips = 64;
+            }
+            boolean fromRight = (coins & 1) != 0;
+            coins >>>= 1;
+            flips--;
+            if (fromRight) {
+                if (j == hi) break;
+                exch(array, i, j++);
+            } else if (i == j) {
+                break;
+            }
+            i++;
+        }
+        for (; i < hi; i++) {
+            exch(array, i, lo + random.nextInt(i - lo + 1));
+        }
+    }
+
+    // merge the shuffled array[lo...mid) and array[mid...hi) into a shuffled array[lo...hi)
+    private static void merge(long[] array, int lo, int mid, int hi, SplittableRandom random) {
+        int i = lo;
+        int j = mid;
+        long coins = 0;
+        int flips = 0;
+        while (true) {
+            if (flips == 0) {
+                coins = random.nextLong();
+                flips = 64;
+            }
+            boolean fromRight = (coins & 1) != 0;
+            coins >>>= 1;
+            flips--;
+            if (fromRight) {
+                if (j == hi) break;
+                exch(array, i, j++);
+            } else if (i == j) {
+                break;
+            }
+            i++;
+        }
+        for (; i < hi; i++) {
+            exch(array, i, lo + random.nextInt(i - lo + 1));
+        }
+    }
+
+    // merge the shuffled array[lo...mid) and array[mid...hi) into a shuffled array[lo...hi)
+    private static void merge(double[] array, int lo, int mid, int hi, SplittableRandom random) {
+        int i = lo;
+        int j = mid;
+        long coins = 0;
+        int flips = 0;
+        while (true) {
+            if (flips == 0) {
+                coins = random.nextLong();
+                flips = 64;
+            }
+            boolean fromRight = (coins & 1) != 0;
+            coins >>>= 1;
+            flips--;
+            if (fromRight) {
+                if (j == hi) break;
+                exch(array, i, j++);
+            } else if (i == j) {
+                break;
+            }
+            i++;
+        }
+        for (; i < hi; i++) {
+            exch(array, i, lo + random.nextInt(i - lo + 1));
+        }
+    }
+
     /***************************************************************************
      *  Helper sorting functions.
      ***************************************************************************/
@@ -75,6 +419,27 @@ public class Shuffle {
         a[j] = swap;
     }
 
+    // exchange a[i] and a[j]
+    private static void exch(int[] a, int i, int j) {
+        int swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(long[] a, int i, int j) {
+        long swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+    // exchange a[i] and a[j]
+    private static void exch(double[] a, int i, int j) {
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
     // print array to standard output
     private static void show(Comparable[] a) {
         for (Comparable objectComparable : a) {
@@ -83,14 +448,15 @@ public class Shuffle {
     }
 
     /**
-     * Reads in a sequence of strings from standard input; selection sorts them;
-     * and prints them to standard output in ascending order.
+     * Reads in a sequence of strings from standard input; shuffles them, with the seed args[0] if given;
+     * and prints them to standard output.
      *
      * @param args the command-line arguments
      */
     public static void main(String[] args) {
         String[] a = StdIn.readAllStrings();
-        Shuffle.knuthShuffle(a);
+        if (args.length > 0) Shuffle.shuffle(a, Long.parseLong(args[0]));
+        else Shuffle.knuthShuffle(a);
         Shuffle.show(a);
     }
 }
@@ -0,0 +1,397 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdOut;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark harness for the sorters of this package.
+ * <p>
+ * Runs every sorter over generated inputs of increasing size: random, sorted, reverse sorted, sawtooth
+ * (ascending runs of 1000), few distinct keys (32 values, like duplicates.txt) and Zipf-distributed strings.
+ * Each measurement warms the sorter up first, then times sorts of fresh copies of the same input and reports
+ * throughput, time per item, bytes allocated per sort by the calling thread and the collections that
+ * happened meanwhile. Quadratic sorters are skipped above {@link #QUADRATIC_MAX_SIZE} items.
+ * <p>
+ * Sorters of other types get the same keys in their own form: int[], long[] and double[] arrays for the
+ * primitive sorts, 10-character decimal strings for {@link LSD#sort(String[])}, 16-byte records with a 4-byte
+ * key in a heap buffer for {@link RecordSort}, and a text file of one key per line for {@link ExternalSort},
+ * whose time includes reading the input and writing the output.
+ * <p>
+ * Run it with {@code -Xms} equal to {@code -Xmx} and nothing else on the machine; the allocation counter only
+ * sees the calling thread, so the parallel sorts' fork/join workers are not included.
+ */
+@SuppressWarnings("rawtypes")
+public class SortBenchmark {
+    /**
+     * Quadratic sorters are not run on inputs larger than this.
+     */
+    public static final int QUADRATIC_MAX_SIZE = 1 << 15;
+
+    // names of the generated inputs
+    private static final String[] INPUTS = {"random", "sorted", "reverse", "sawtooth", "few-distinct", "zipf-strings"};
+
+    // layout of the records given to RecordSort
+    private static final int RECORD_SIZE = 16;
+    private static final int KEY_SIZE = 4;
+
+    // time spent warming up and measuring each sorter on each input, in nanoseconds
+    private static final long WARMUP_NANOS = 500_000_000L;
+    private static final long MEASURE_NANOS = 1_000_000_000L;
+
+    // This class should not be instantiated.
+    private SortBenchmark() {
+    }
+
+    /**
+     * The form of the input a sorter takes.
+     */
+    private enum Kind {
+        COMPARABLES, STRINGS, INTS, LONGS, DOUBLES, FIXED_WIDTH_STRINGS, RECORDS, FILE
+    }
+
+    /**
+     * A named sort entry point.
+     */
+    private static class Sorter {
+        private final String name;
+        private final Kind kind;
+        private final Consumer<Object> sort;
+        private final boolean quadratic;
+
+        Sorter(String name, Kind kind, Consumer<Object> sort, boolean quadratic) {
+            this.name = name;
+            this.kind = kind;
+            this.sort = sort;
+            this.quadratic = quadratic;
+        }
+    }
+
+    // every sorter of the package, in the order they are reported
+    private static List<Sorter> sorters() {
+        List<Sorter> sorters = new ArrayList<>();
+        sorters.add(comparables("Insertion", Insertion::sort, true));
+        sorters.add(comparables("Selection", Selection::sort, true));
+        sorters.add(comparables("Shell.knuth", a -> Shell.sort(a, Shell.Gaps.KNUTH), false));
+        sorters.add(comparables("Shell.ciura", a -> Shell.sort(a, Shell.Gaps.CIURA), false));
+        sorters.add(comparables("Shell.tokuda", a -> Shell.sort(a, Shell.Gaps.TOKUDA), false));
+        sorters.add(comparables("Shell.sedgewick", a -> Shell.sort(a, Shell.Gaps.SEDGEWICK), false));
+        sorters.add(comparables("Heap", Heap::sort, false));
+        sorters.add(comparables("Heap.bottomUp", Heap::bottomUpSort, false));
+        sorters.add(comparables("Heap.fourAry", Heap::fourArySort, false));
+        sorters.add(comparables("Quick", Quick::sort, false));
+        sorters.add(comparables("Quick.dualPivot", Quick::dualPivotSort, false));
+        sorters.add(comparables("Quick.intro", Quick::introSort, false));
+        sorters.add(comparables("Quick3Way", Quick3Way::sort, false));
+        sorters.add(comparables("Quick3Way.parallel", Quick3Way::parallelSort, false));
+        sorters.add(comparables("Merge", Merge::sort, false));
+        sorters.add(comparables("Merge.parallel", Merge::parallelSort, false));
+        sorters.add(comparables("MergeBottomUp", MergeBottomUp::sort, false));
+        sorters.add(comparables("MergeNatural", MergeNatural::sort, false));
+        sorters.add(comparables("SampleSort", SampleSort::sort, false));
+        sorters.add(comparables("Sorts", Sorts::sort, false));
+        sorters.add(new Sorter("MSD", Kind.STRINGS, a -> MSD.sort((String[]) a), false));
+        sorters.add(new Sorter("Quick3String", Kind.STRINGS, a -> Quick3String.sort((String[]) a), false));
+
+        primitives(sorters, "Insertion", Insertion::sort, Insertion::sort, Insertion::sort, true);
+        primitives(sorters, "Shell", Shell::sort, Shell::sort, Shell::sort, false);
+        primitives(sorters, "Heap", Heap::sort, Heap::sort, Heap::sort, false);
+        primitives(sorters, "Quick", Quick::sort, Quick::sort, Quick::sort, false);
+        primitives(sorters, "Quick3Way", Quick3Way::sort, Quick3Way::sort, Quick3Way::sort, false);
+        primitives(sorters, "Merge", Merge::sort, Merge::sort, Merge::sort, false);
+        primitives(sorters, "MergeBottomUp", MergeBottomUp::sort, MergeBottomUp::sort, MergeBottomUp::sort, false);
+        primitives(sorters, "Sorts", Sorts::sort, Sorts::sort, Sorts::sort, false);
+        sorters.add(new Sorter("LSD.parallel.int", Kind.INTS, a -> LSD.parallelSort((int[]) a), false));
+        sorters.add(new Sorter("LSD.parallel.long", Kind.LONGS, a -> LSD.parallelSort((long[]) a), false));
+        sorters.add(new Sorter("LSD.string", Kind.FIXED_WIDTH_STRINGS, a -> LSD.sort((String[]) a), false));
+        sorters.add(new Sorter("RecordSort", Kind.RECORDS, a -> RecordSort.sort((ByteBuffer) a, RECORD_SIZE, KEY_SIZE), false));
+        sorters.add(new Sorter("ExternalSort", Kind.FILE, SortBenchmark::externalSort, false));
+        return sorters;
+    }
+
+    // a sorter of Comparable[]
+    private static Sorter comparables(String name, Consumer<Comparable[]> sort, boolean quadratic) {
+        return new Sorter(name, Kind.COMPARABLES, a -> sort.accept((Comparable[]) a), quadratic);
+    }
+
+    // the int[], long[] and double[] overloads of a sorter
+    private static void primitives(List<Sorter> sorters, String name, Consumer<int[]> ints, Consumer<long[]> longs,
+                                   Consumer<double[]> doubles, boolean quadratic) {
+        sorters.add(new Sorter(name + ".int", Kind.INTS, a -> ints.accept((int[]) a), quadratic));
+        sorters.add(new Sorter(name + ".long", Kind.LONGS, a -> longs.accept((long[]) a), quadratic));
+        sorters.add(new Sorter(name + ".double", Kind.DOUBLES, a -> doubles.accept((double[]) a), quadratic));
+    }
+
+    // sort the file into a temporary output file, deleted right after
+    private static void externalSort(Object input) {
+        try {
+            Path output = Files.createTempFile("sort-benchmark", ".out");
+            try {
+                ExternalSort.sort((Path) input, output);
+            } finally {
+                Files.delete(output);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /***************************************************************************
+     *  Input generation.
+     ***************************************************************************/
+
+    /**
+     * Generates an input of n keys, the same one for a given seed.
+     *
+     * @param input name of the distribution, one of {@link #INPUTS}
+     * @param n     number of keys
+     * @param seed  seed of the random generator
+     * @return Integer keys, or String keys for zipf-strings
+     */
+    static Comparable[] generate(String input, int n, long seed) {
+        Random random = new Random(seed);
+        if (input.equals("zipf-strings")) {
+            return zipfStrings(n, random);
+        }
+        Integer[] a = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            switch (input) {
+                case "random":
+                    a[i] = random.nextInt();
+                    break;
+                case "sorted":
+                    a[i] = i;
+                    break;
+                case "reverse":
+                    a[i] = n - i;
+                    break;
+                case "sawtooth":
+                    a[i] = i % 1000;
+                    break;
+                case "few-distinct":
+                    a[i] = random.nextInt(32);
+                    break;
+                default:
+                    throw new IllegalArgumentException("unknown input: " + input);
+            }
+        }
+        return a;
+    }
+
+    // n strings drawn from a vocabulary of URL-like words with Zipf (s = 1) frequencies
+    private static String[] zipfStrings(int n, Random random) {
+        int vocabulary = Math.max(1, Math.min(n, 100_000));
+        String[] words = new String[vocabulary];
+        double[] cumulative = new double[vocabulary];
+        double total = 0;
+        for (int r = 0; r < vocabulary; r++) {
+            words[r] = "https://example.com/" + Integer.toString(random.nextInt(Integer.MAX_VALUE), 36) + "/" + r;
+            total += 1.0 / (r + 1);
+            cumulative[r] = total;
+        }
+        String[] a = new String[n];
+        for (int i = 0; i < n; i++) {
+            double u = random.nextDouble() * total;
+            // first rank whose cumulative weight reaches u
+            int lo = 0;
+            int hi = vocabulary - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] < u) lo = mid + 1;
+                else hi = mid;
+            }
+            a[i] = words[lo];
+        }
+        return a;
+    }
+
+    /**
+     * Converts generated keys to the input of a sorter of the given kind.
+     *
+     * @return the keys in the form the kind of sorter takes, or null if that kind does not apply to the keys
+     */
+    private static Object convert(Kind kind, Comparable[] data) {
+        boolean strings = data instanceof String[];
+        int n = data.length;
+        switch (kind) {
+            case COMPARABLES:
+                return data;
+            case STRINGS:
+                return strings ? data : null;
+            case FILE:
+                return writeLines(data);
+        }
+        if (strings) return null;
+        switch (kind) {
+            case INTS: {
+                int[] a = new int[n];
+                for (int i = 0; i < n; i++) a[i] = (Integer) data[i];
+                return a;
+            }
+            case LONGS: {
+                long[] a = new long[n];
+                for (int i = 0; i < n; i++) a[i] = (Integer) data[i];
+                return a;
+            }
+            case DOUBLES: {
+                double[] a = new double[n];
+                for (int i = 0; i < n; i++) a[i] = (Integer) data[i];
+                return a;
+            }
+            case FIXED_WIDTH_STRINGS: {
+                // the key shifted to 0...2^32-1, zero-padded to 10 digits, which keeps the order of the keys
+                String[] a = new String[n];
+                for (int i = 0; i < n; i++) a[i] = String.format("%010d", (long) (Integer) data[i] - Integer.MIN_VALUE);
+                return a;
+            }
+            case RECORDS: {
+                // the key with its sign bit flipped, so that unsigned byte order is the order of the keys,
+                // then the index of the key as payload
+                ByteBuffer records = ByteBuffer.allocate(n * RECORD_SIZE);
+                for (int i = 0; i < n; i++) {
+                    records.putInt((Integer) data[i] ^ Integer.MIN_VALUE);
+                    records.putInt(i);
+                    records.putLong(0);
+                }
+                return records.flip();
+            }
+            default:
+                throw new IllegalArgumentException("unknown kind: " + kind);
+        }
+    }
+
+    // a temporary file holding the keys, one per line
+    private static Path writeLines(Comparable[] data) {
+        try {
+            Path file = Files.createTempFile("sort-benchmark", ".txt");
+            try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (Comparable key : data) {
+                    out.write(key.toString());
+                    out.newLine();
+                }
+            }
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // delete the file of keys, if one was written
+    private static void deleteFile(Object file) {
+        if (file == null) return;
+        try {
+            Files.delete((Path) file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // a fresh copy of a sorter's input; files are not modified by the sort and are not copied
+    private static Object copy(Object data) {
+        if (data instanceof Object[]) return ((Object[]) data).clone();
+        if (data instanceof int[]) return ((int[]) data).clone();
+        if (data instanceof long[]) return ((long[]) data).clone();
+        if (data instanceof double[]) return ((double[]) data).clone();
+        if (data instanceof ByteBuffer) {
+            ByteBuffer records = (ByteBuffer) data;
+            return ByteBuffer.wrap(Arrays.copyOf(records.array(), records.limit()));
+        }
+        return data;
+    }
+
+    /***************************************************************************
+     *  Measurement.
+     ***************************************************************************/
+
+    /**
+     * Sorts fresh copies of the input with the sorter, first for the warmup time, then for the measure time,
+     * and prints one line of results.
+     */
+    private static void measure(Sorter sorter, String input, Object data, int n) {
+        long end = System.nanoTime() + WARMUP_NANOS;
+        while (System.nanoTime() < end) {
+            sorter.sort.accept(copy(data));
+        }
+
+        long sorts = 0;
+        long sortNanos = 0;
+        long allocated = 0;
+        long collections = collectionCount();
+        end = System.nanoTime() + MEASURE_NANOS;
+        while (System.nanoTime() < end || sorts == 0) {
+            Object copy = copy(data);
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            sorter.sort.accept(copy);
+            sortNanos += System.nanoTime() - start;
+            allocated += allocatedBytes() - bytes;
+            sorts++;
+        }
+        collections = collectionCount() - collections;
+
+        double seconds = sortNanos / 1e9;
+        StdOut.printf("%-20s %-14s %10d %12.2f %10.2f %14d %6d%n", sorter.name, input, n,
+                sorts / seconds, (double) sortNanos / sorts / Math.max(1, n), allocated / sorts, collections);
+    }
+
+    // bytes allocated so far by the current thread, or 0 if the JVM does not tell
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    // collections so far, over all collectors
+    private static long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Benchmarks the sorters on inputs of 10^3, 10^4, ... items up to args[0] (10^7 by default).
+     * If args[1] is given, only the sorters whose name contains it are run.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        long maxSize = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000;
+        String filter = args.length > 1 ? args[1] : "";
+
+        StdOut.printf("%-20s %-14s %10s %12s %10s %14s %6s%n", "sorter", "input", "n", "sorts/s", "ns/item", "B/sort", "gcs");
+        for (long n = 1000; n <= maxSize; n *= 10) {
+            for (String input : INPUTS) {
+                Comparable[] data = generate(input, (int) n, n);
+                // each kind of input is converted once, on first use
+                Map<Kind, Object> converted = new EnumMap<>(Kind.class);
+                for (Sorter sorter : sorters()) {
+                    if (!sorter.name.contains(filter)) continue;
+                    if (sorter.quadratic && n > QUADRATIC_MAX_SIZE) continue;
+                    Object keys = converted.computeIfAbsent(sorter.kind, kind -> convert(kind, data));
+                    if (keys == null) continue;
+                    measure(sorter, input, keys, (int) n);
+                }
+                deleteFile(converted.get(Kind.FILE));
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package sorting;
+
+/**
+ * Instrumentation hooks called by the sorters of this package, on their object, primitive and string paths.
+ * <p>
+ * A probe is installed with {@link SortProbes#install(SortProbe)} and is called from whichever thread runs
+ * the sort, so implementations must be thread-safe. Calls between {@link #sortStarted} and
+ * {@link #sortFinished} on one thread belong to that sort; a sort entry point called from inside another one
+ * ({@link Sorts} handing the array to the sorter it chose, for instance) reports its own start and finish nested in the
+ * outer ones. The fork/join workers of the parallel sorts report compares, exchanges and writes, but no start
+ * or finish of their own: every task they run is wrapped in {@link #taskStarted} and {@link #taskFinished}
+ * with the handle that {@link #currentSort} returned on the thread that started the sort, so that a probe can
+ * count the work of the tasks as part of that sort.
+ */
+public interface SortProbe {
+
+    /**
+     * A sort entry point was called.
+     *
+     * @param algorithm name of the sorter and entry point, like {@code "Quick.introSort"}
+     * @param n         number of items to sort, or -1 if the sorter only knows it once done, like
+     *                  {@link ExternalSort}
+     */
+    void sortStarted(String algorithm, int n);
+
+    /**
+     * The sort entry point started last on this thread returned.
+     *
+     * @param algorithm name of the sorter and entry point
+     * @param n         number of items sorted
+     */
+    void sortFinished(String algorithm, int n);
+
+    /**
+     * A dispatching entry point like {@link Sorts#sort(Comparable[])} chose the sorter for its input.
+     * Called between its start and the start of the chosen sorter; ignored unless overridden.
+     *
+     * @param algorithm name of the chosen sorter and entry point, or {@code "none"} if the input was already sorted
+     * @param n         number of items to sort
+     */
+    default void dispatched(String algorithm, int n) {
+    }
+
+    /**
+     * Returns a handle on the sort running on the current thread, which a parallel sort hands to its fork/join
+     * tasks. Called between its start and the start of its first task; returns null unless overridden.
+     *
+     * @return the handle, or null if the probe does not follow tasks
+     */
+    default Object currentSort() {
+        return null;
+    }
+
+    /**
+     * A fork/join task of a sort starts running on the current thread; the calls on this thread up to the
+     * matching {@link #taskFinished} belong to that sort. Tasks of the same sort may nest on one thread.
+     * Ignored unless overridden.
+     *
+     * @param sort the handle returned by {@link #currentSort} for the sort, never null
+     */
+    default void taskStarted(Object sort) {
+    }
+
+    /**
+     * The fork/join task started last on the current thread finished. Ignored unless overridden.
+     *
+     * @param sort the handle of the sort the task belongs to
+     */
+    default void taskFinished(Object sort) {
+    }
+
+    // two keys were compared
+    void compared();
+
+    // two items were exchanged
+    void exchanged();
+
+    /**
+     * Items were written to the array or to an aux array other than by an exchange, by a merge or a shift.
+     *
+     * @param count number of items written
+     */
+    void wrote(int count);
+
+    // the sort recursed one level deeper
+    void entered();
+
+    // the sort returned from one level of recursion
+    void exited();
+}
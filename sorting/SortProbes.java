@@ -0,0 +1,100 @@
+package sorting;
+
+/**
+ * Holder of the installed {@link SortProbe}, and the hooks the sorters call.
+ * <p>
+ * Probing is switched on for the whole JVM by {@code -Dsorting.probes=true}. The flag is read once into the
+ * constant {@link #ENABLED}, and every hook in the sorters is guarded by it, so when it is off the JIT
+ * removes the hooks altogether and an uninstrumented sort costs exactly what it did before.
+ */
+public final class SortProbes {
+    /**
+     * Whether the sorters call the hooks at all, from the {@code sorting.probes} system property.
+     */
+    public static final boolean ENABLED = Boolean.getBoolean("sorting.probes");
+
+    private static volatile SortProbe probe;
+
+    // This class should not be instantiated.
+    private SortProbes() {
+    }
+
+    /**
+     * Installs the probe, replacing the current one.
+     *
+     * @param probe the probe to call from now on
+     * @throws IllegalArgumentException if the probe is null
+     * @throws IllegalStateException    if the JVM was not started with {@code -Dsorting.probes=true}
+     */
+    public static void install(SortProbe probe) {
+        if (probe == null) throw new IllegalArgumentException();
+        if (!ENABLED) throw new IllegalStateException("probes are disabled, run with -Dsorting.probes=true");
+        SortProbes.probe = probe;
+    }
+
+    /**
+     * Removes the installed probe, if any.
+     */
+    public static void uninstall() {
+        probe = null;
+    }
+
+    /***************************************************************************
+     *  Hooks, only called under if (SortProbes.ENABLED).
+     ***************************************************************************/
+
+    static void sortStarted(String algorithm, int n) {
+        SortProbe p = probe;
+        if (p != null) p.sortStarted(algorithm, n);
+    }
+
+    static void sortFinished(String algorithm, int n) {
+        SortProbe p = probe;
+        if (p != null) p.sortFinished(algorithm, n);
+    }
+
+    static void dispatched(String algorithm, int n) {
+        SortProbe p = probe;
+        if (p != null) p.dispatched(algorithm, n);
+    }
+
+    static Object currentSort() {
+        SortProbe p = probe;
+        return p != null ? p.currentSort() : null;
+    }
+
+    static void taskStarted(Object sort) {
+        SortProbe p = probe;
+        if (p != null && sort != null) p.taskStarted(sort);
+    }
+
+    static void taskFinished(Object sort) {
+        SortProbe p = probe;
+        if (p != null && sort != null) p.taskFinished(sort);
+    }
+
+    static void compared() {
+        SortProbe p = probe;
+        if (p != null) p.compared();
+    }
+
+    static void exchanged() {
+        SortProbe p = probe;
+        if (p != null) p.exchanged();
+    }
+
+    static void wrote(int count) {
+        SortProbe p = probe;
+        if (p != null) p.wrote(count);
+    }
+
+    static void entered() {
+        SortProbe p = probe;
+        if (p != null) p.entered();
+    }
+
+    static void exited() {
+        SortProbe p = probe;
+        if (p != null) p.exited();
+    }
+}
@@ -0,0 +1,123 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Sorted view over a stream of appended keys, kept the way a log-structured merge tree keeps its runs.
+ * <p>
+ * New keys go to an unsorted head of {@link #HEAD_SIZE} keys, which is insertion sorted once full and becomes a
+ * sorted run. Level i holds either nothing or one sorted run of {@code HEAD_SIZE * 2^i} keys; a new run
+ * carries up the levels like a binary counter, merging with the run of every full level it meets, so each
+ * key is merged at most log2(n / HEAD_SIZE) times and every merge reads and writes arrays front to back.
+ * Adding takes O(log n) amortized time. Iterating merges the O(log n) runs and a sorted copy of the head
+ * lazily with a {@link LoserTree}, so a sorted view is available after every add without sorting anything
+ * again. Keys that compare equal are iterated in the order they were added.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class SortedBuffer<Key extends Comparable<? super Key>> implements Iterable<Key> {
+    /**
+     * Number of keys held unsorted before they are sorted into a run.
+     */
+    public static final int HEAD_SIZE = 64;
+
+    private final Comparable[] head = new Comparable[HEAD_SIZE];
+    private int headCount;
+    // levels.get(i) is null or a sorted run of HEAD_SIZE * 2^i keys, added before those of the levels below it
+    private final List<Comparable[]> levels = new ArrayList<>();
+    private int count;
+
+    /**
+     * Initializes an empty buffer.
+     */
+    public SortedBuffer() {
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Adds a key to the buffer.
+     *
+     * @param key the key to add
+     * @throws IllegalArgumentException if the key is null
+     */
+    public void add(Key key) {
+        if (key == null) throw new IllegalArgumentException("key is null");
+        head[headCount++] = key;
+        count++;
+        if (headCount == HEAD_SIZE) {
+            Comparable[] run = head.clone();
+            Insertion.sort(run);
+            Arrays.fill(head, null);
+            headCount = 0;
+            carry(run);
+        }
+    }
+
+    // push a sorted run of HEAD_SIZE keys into level 0, merging it up the full levels
+    private void carry(Comparable[] run) {
+        for (int i = 0; ; i++) {
+            if (i == levels.size()) {
+                levels.add(run);
+                return;
+            }
+            Comparable[] level = levels.get(i);
+            if (level == null) {
+                levels.set(i, run);
+                return;
+            }
+            // the run of the level was added first, so it goes first on ties
+            Comparable[] merged = new Comparable[level.length + run.length];
+            Merge.merge(level, run, merged);
+            levels.set(i, null);
+            run = merged;
+        }
+    }
+
+    /**
+     * Returns an iterator over the keys added so far, in ascending order.
+     * The iterator works on a snapshot: keys added after it was created are not returned.
+     *
+     * @return an iterator over the keys in ascending order
+     */
+    @Override
+    public Iterator<Key> iterator() {
+        List<Iterator<Key>> runs = new ArrayList<>();
+        // oldest run first, as the loser tree breaks ties in favor of the first source
+        for (int i = levels.size() - 1; i >= 0; i--) {
+            Comparable[] level = levels.get(i);
+            if (level != null) runs.add(Arrays.asList((Key[]) level).iterator());
+        }
+        Comparable[] sortedHead = Arrays.copyOf(head, headCount);
+        Insertion.sort(sortedHead);
+        runs.add(Arrays.asList((Key[]) sortedHead).iterator());
+        return new LoserTree<>(runs);
+    }
+
+    /**
+     * Reads in a sequence of strings from standard input, adds them to a buffer one at a time,
+     * and prints them to standard output in ascending order.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        SortedBuffer<String> buffer = new SortedBuffer<>();
+        while (!StdIn.isEmpty()) {
+            buffer.add(StdIn.readString());
+        }
+        for (String s : buffer) {
+            StdOut.println(s);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package sorting;
+
+/**
+ * Sorting networks for small primitive subarrays, the leaf case of the primitive quicksorts and merge sorts.
+ * <p>
+ * A sorting network is a fixed sequence of compare-exchanges that sorts any input of its size. Unlike
+ * insertion sort, the sequence does not depend on the data, so each compare-exchange is a min and a max
+ * that the JIT compiles to conditional moves, and there is no branch for the CPU to mispredict. The
+ * networks are Batcher's odd-even merge sorts, with the comparators of each size from 2 to {@link #MAX_SIZE}
+ * computed once into a table of index pairs: 19 compare-exchanges for 8 items, 63 for 16.
+ */
+public class SortingNetwork {
+    /**
+     * Largest subarray a network is available for.
+     */
+    public static final int MAX_SIZE = 16;
+
+    // NETWORKS[n] holds the compare-exchanges sorting n items, as pairs of indices i < j
+    private static final byte[][] NETWORKS = new byte[MAX_SIZE + 1][];
+
+    static {
+        for (int n = 0; n <= MAX_SIZE; n++) {
+            NETWORKS[n] = oddEvenMergeSort(n);
+        }
+    }
+
+    // This class should not be instantiated.
+    private SortingNetwork() {
+    }
+
+    /**
+     * Returns the comparators of Batcher's odd-even merge sort of n items, for any n:
+     * the network of the next power of two with the comparators that reach past n - 1 left out.
+     */
+    private static byte[] oddEvenMergeSort(int n) {
+        byte[] pairs = new byte[2 * n * n];
+        int count = 0;
+        for (int p = 1; p < n; p <<= 1) {
+            for (int k = p; k >= 1; k >>= 1) {
+                for (int j = k % p; j <= n - 1 - k; j += 2 * k) {
+                    for (int i = 0; i <= Math.min(k - 1, n - j - k - 1); i++) {
+                        // only items of the same block of 2p are compared
+                        if ((i + j) / (2 * p) == (i + j + k) / (2 * p)) {
+                            pairs[count++] = (byte) (i + j);
+                            pairs[count++] = (byte) (i + j + k);
+                        }
+                    }
+                }
+            }
+        }
+        return java.util.Arrays.copyOf(pairs, count);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     *                                  and {@code to - from <= MAX_SIZE}
+     */
+    public static void sort(int[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("SortingNetwork.sort", to - from);
+        sortLeaf(array, from, to - from);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("SortingNetwork.sort", to - from);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     *                                  and {@code to - from <= MAX_SIZE}
+     */
+    public static void sort(long[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("SortingNetwork.sort", to - from);
+        sortLeaf(array, from, to - from);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("SortingNetwork.sort", to - from);
+    }
+
+    /**
+     * Rearranges the subarray array[from...to) in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     * @param from  index of the first element, inclusive
+     * @param to    index of the last element, exclusive
+     * @throws IllegalArgumentException unless {@code 0 <= from <= to <= array.length}
+     *                                  and {@code to - from <= MAX_SIZE}
+     */
+    public static void sort(double[] array, int from, int to) {
+        checkRange(array.length, from, to);
+        if (SortProbes.ENABLED) SortProbes.sortStarted("SortingNetwork.sort", to - from);
+        sortLeaf(array, from, to - from);
+        if (SortProbes.ENABLED) SortProbes.sortFinished("SortingNetwork.sort", to - from);
+    }
+
+    /***************************************************************************
+     *  Leaf sorts, unchecked, for the sorters of this package.
+     ***************************************************************************/
+
+    // sort array[lo...lo+n), n <= MAX_SIZE
+    static void sortLeaf(int[] array, int lo, int n) {
+        byte[] network = NETWORKS[n];
+        if (SortProbes.ENABLED) report(network);
+        for (int c = 0; c < network.length; c += 2) {
+            int i = lo + network[c];
+            int j = lo + network[c + 1];
+            int x = array[i];
+            int y = array[j];
+            array[i] = Math.min(x, y);
+            array[j] = Math.max(x, y);
+        }
+    }
+
+    // sort array[lo...lo+n), n <= MAX_SIZE
+    static void sortLeaf(long[] array, int lo, int n) {
+        byte[] network = NETWORKS[n];
+        if (SortProbes.ENABLED) report(network);
+        for (int c = 0; c < network.length; c += 2) {
+            int i = lo + network[c];
+            int j = lo + network[c + 1];
+            long x = array[i];
+            long y = array[j];
+            array[i] = Math.min(x, y);
+            array[j] = Math.max(x, y);
+        }
+    }
+
+    // sort array[lo...lo+n), n <= MAX_SIZE; Math.min would lose NaNs and order -0.0 and 0.0 arbitrarily
+    static void sortLeaf(double[] array, int lo, int n) {
+        byte[] network = NETWORKS[n];
+        if (SortProbes.ENABLED) report(network);
+        for (int c = 0; c < network.length; c += 2) {
+            int i = lo + network[c];
+            int j = lo + network[c + 1];
+            double x = array[i];
+            double y = array[j];
+            boolean swap = Double.compare(y, x) < 0;
+            array[i] = swap ? y : x;
+            array[j] = swap ? x : y;
+        }
+    }
+
+    // every compare-exchange of the network compares two items and writes both back
+    private static void report(byte[] network) {
+        for (int c = 0; c < network.length; c += 2) {
+            SortProbes.compared();
+        }
+        SortProbes.wrote(network.length);
+    }
+
+    // is array[from...to) a valid subarray of an array of the given length, short enough for a network?
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || to > length || from > to) throw new IllegalArgumentException();
+        if (to - from > MAX_SIZE) throw new IllegalArgumentException("subarray longer than " + MAX_SIZE + ": " + (to - from));
+    }
+}
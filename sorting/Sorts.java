@@ -0,0 +1,336 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+/**
+ * Sorting facade that profiles the input and hands it to the sorter of this package best suited to it.
+ * <p>
+ * The profile is cheap next to the sort itself: the size and type of the array, a presortedness estimate
+ * from counting descents (which stops as soon as the array is clearly neither ascending nor descending, after
+ * about n / 32 items on random input), and the share of distinct keys in a sorted sample of {@link #SAMPLE_SIZE}
+ * evenly spaced items. The sorter chosen is reported to the installed {@link SortProbe} through
+ * {@link SortProbe#dispatched}, under the entry point {@code "Sorts.sort"}.
+ * <ul>
+ *     <li>small arrays: insertion sort;</li>
+ *     <li>nearly ascending or descending arrays: {@link MergeNatural}, which takes close to linear time on them,
+ *     or for primitive arrays {@link Merge}, after reversing nearly descending ones;</li>
+ *     <li>many duplicate keys: 3-way quicksort, {@link Quick3String} for strings;</li>
+ *     <li>int and long arrays: {@link LSD} radix sort once they are large enough;</li>
+ *     <li>anything else: {@link Quick3String} for strings, introsort otherwise.</li>
+ * </ul>
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class Sorts {
+    // arrays of at most this many items are insertion sorted
+    private static final int INSERTION_MAX = 32;
+
+    // int and long arrays of at least this many items are radix sorted
+    private static final int RADIX_MIN = 1 << 12;
+
+    // an array with at most n / PRESORTED_RATIO descents, or ascents, counts as nearly sorted
+    private static final int PRESORTED_RATIO = 64;
+
+    /**
+     * Number of items sampled to estimate the share of distinct keys.
+     */
+    public static final int SAMPLE_SIZE = 64;
+
+    // a sample with at most this many distinct keys means many duplicates
+    private static final int FEW_DISTINCT = SAMPLE_SIZE / 2;
+
+    // This class should not be instantiated.
+    private Sorts() {
+    }
+
+    /**
+     * Rearranges the array in ascending order, using the natural order.
+     * The sort is not stable.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(Comparable[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Sorts.sort", n);
+        boolean strings = array instanceof String[];
+        if (n <= INSERTION_MAX) {
+            dispatch("Insertion.sort", n);
+            Insertion.sort(array);
+        } else if (isNearlySorted(array)) {
+            dispatch("MergeNatural.sort", n);
+            MergeNatural.sort(array);
+        } else if (strings) {
+            dispatch("Quick3String.sort", n);
+            Quick3String.sort((String[]) array);
+        } else if (hasFewDistinct(array)) {
+            dispatch("Quick3Way.sort", n);
+            Quick3Way.sort(array);
+        } else {
+            dispatch("Quick.introSort", n);
+            Quick.introSort(array);
+        }
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Sorts.sort", n);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(int[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Sorts.sort", n);
+        int descents = descents(array);
+        if (n <= INSERTION_MAX) {
+            dispatch("Insertion.sort", n);
+            Insertion.sort(array);
+        } else if (descents == 0) {
+            dispatch("none", n);
+        } else if (descents > 0) {
+            // nearly descending input is reversed first, which leaves it nearly ascending
+            if (descents > n / 2) reverse(array);
+            dispatch("Merge.sort", n);
+            Merge.sort(array);
+        } else if (n >= RADIX_MIN) {
+            dispatch("LSD.parallelSort", n);
+            LSD.parallelSort(array);
+        } else if (hasFewDistinct(array)) {
+            dispatch("Quick3Way.sort", n);
+            Quick3Way.sort(array);
+        } else {
+            dispatch("Quick.sort", n);
+            Quick.sort(array);
+        }
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Sorts.sort", n);
+    }
+
+    /**
+     * Rearranges the array in ascending order.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(long[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Sorts.sort", n);
+        int descents = descents(array);
+        if (n <= INSERTION_MAX) {
+            dispatch("Insertion.sort", n);
+            Insertion.sort(array);
+        } else if (descents == 0) {
+            dispatch("none", n);
+        } else if (descents > 0) {
+            // nearly descending input is reversed first, which leaves it nearly ascending
+            if (descents > n / 2) reverse(array);
+            dispatch("Merge.sort", n);
+            Merge.sort(array);
+        } else if (n >= RADIX_MIN) {
+            dispatch("LSD.parallelSort", n);
+            LSD.parallelSort(array);
+        } else if (hasFewDistinct(array)) {
+            dispatch("Quick3Way.sort", n);
+            Quick3Way.sort(array);
+        } else {
+            dispatch("Quick.sort", n);
+            Quick.sort(array);
+        }
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Sorts.sort", n);
+    }
+
+    /**
+     * Rearranges the array in ascending order using the total order of {@link Double#compare}.
+     *
+     * @param array the array to be sorted
+     */
+    public static void sort(double[] array) {
+        int n = array.length;
+        if (SortProbes.ENABLED) SortProbes.sortStarted("Sorts.sort", n);
+        int descents = descents(array);
+        if (n <= INSERTION_MAX) {
+            dispatch("Insertion.sort", n);
+            Insertion.sort(array);
+        } else if (descents == 0) {
+            dispatch("none", n);
+        } else if (descents > 0) {
+            // nearly descending input is reversed first, which leaves it nearly ascending
+            if (descents > n / 2) reverse(array);
+            dispatch("Merge.sort", n);
+            Merge.sort(array);
+        } else if (hasFewDistinct(array)) {
+            dispatch("Quick3Way.sort", n);
+            Quick3Way.sort(array);
+        } else {
+            dispatch("Quick.sort", n);
+            Quick.sort(array);
+        }
+        if (SortProbes.ENABLED) SortProbes.sortFinished("Sorts.sort", n);
+    }
+
+    private static void dispatch(String algorithm, int n) {
+        if (SortProbes.ENABLED) SortProbes.dispatched(algorithm, n);
+    }
+
+    /***************************************************************************
+     *  Profiling.
+     ***************************************************************************/
+
+    /**
+     * Is the array within n / PRESORTED_RATIO descents of ascending order, or as close to descending order?
+     * Stops as soon as there are too many descents and too many ascents for either.
+     */
+    private static boolean isNearlySorted(Comparable[] array) {
+        int n = array.length;
+        int limit = n / PRESORTED_RATIO;
+        int descents = 0;
+        for (int i = 1; i < n; i++) {
+            if (array[i].compareTo(array[i - 1]) < 0) descents++;
+            if (descents > limit && i - descents > limit) return false;
+        }
+        return true;
+    }
+
+    // are the keys of an evenly spaced sample mostly duplicates?
+    private static boolean hasFewDistinct(Comparable[] array) {
+        Comparable[] sample = new Comparable[SAMPLE_SIZE];
+        int step = array.length / SAMPLE_SIZE;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = array[i * step];
+        }
+        Insertion.sort(sample);
+        int distinct = 1;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            if (sample[i].compareTo(sample[i - 1]) != 0) distinct++;
+        }
+        return distinct <= FEW_DISTINCT;
+    }
+
+    // are the keys of an evenly spaced sample mostly duplicates?
+    private static boolean hasFewDistinct(int[] array) {
+        int[] sample = new int[SAMPLE_SIZE];
+        int step = array.length / SAMPLE_SIZE;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = array[i * step];
+        }
+        Insertion.sort(sample);
+        int distinct = 1;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            if (sample[i] != sample[i - 1]) distinct++;
+        }
+        return distinct <= FEW_DISTINCT;
+    }
+
+    // are the keys of an evenly spaced sample mostly duplicates?
+    private static boolean hasFewDistinct(long[] array) {
+        long[] sample = new long[SAMPLE_SIZE];
+        int step = array.length / SAMPLE_SIZE;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = array[i * step];
+        }
+        Insertion.sort(sample);
+        int distinct = 1;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            if (sample[i] != sample[i - 1]) distinct++;
+        }
+        return distinct <= FEW_DISTINCT;
+    }
+
+    // are the keys of an evenly spaced sample mostly duplicates?
+    private static boolean hasFewDistinct(double[] array) {
+        double[] sample = new double[SAMPLE_SIZE];
+        int step = array.length / SAMPLE_SIZE;
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = array[i * step];
+        }
+        Insertion.sort(sample);
+        int distinct = 1;
+        for (int i = 1; i < SAMPLE_SIZE; i++) {
+            if (Double.compare(sample[i], sample[i - 1]) != 0) distinct++;
+        }
+        return distinct <= FEW_DISTINCT;
+    }
+
+    /**
+     * Returns the number of descents of the array, or -1 as soon as there are more than n / PRESORTED_RATIO
+     * of them and as many ascents, so that the array is close to neither ascending nor descending order.
+     */
+    private static int descents(int[] array) {
+        int n = array.length;
+        int limit = n / PRESORTED_RATIO;
+        int descents = 0;
+        for (int i = 1; i < n; i++) {
+            if (array[i] < array[i - 1]) descents++;
+            if (descents > limit && i - descents > limit) return -1;
+        }
+        return descents;
+    }
+
+    /**
+     * Returns the number of descents of the array, or -1 as soon as there are more than n / PRESORTED_RATIO
+     * of them and as many ascents, so that the array is close to neither ascending nor descending order.
+     */
+    private static int descents(long[] array) {
+        int n = array.length;
+        int limit = n / PRESORTED_RATIO;
+        int descents = 0;
+        for (int i = 1; i < n; i++) {
+            if (array[i] < array[i - 1]) descents++;
+            if (descents > limit && i - descents > limit) return -1;
+        }
+        return descents;
+    }
+
+    /**
+     * Returns the number of descents of the array, or -1 as soon as there are more than n / PRESORTED_RATIO
+     * of them and as many ascents, so that the array is close to neither ascending nor descending order.
+     */
+    private static int descents(double[] array) {
+        int n = array.length;
+        int limit = n / PRESORTED_RATIO;
+        int descents = 0;
+        for (int i = 1; i < n; i++) {
+            if (Double.compare(array[i], array[i - 1]) < 0) descents++;
+            if (descents > limit && i - descents > limit) return -1;
+        }
+        return descents;
+    }
+
+    // reverse the array
+    private static void reverse(int[] array) {
+        for (int i = 0, j = array.length - 1; i < j; i++, j--) {
+            int swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+
+    // reverse the array
+    private static void reverse(long[] array) {
+        for (int i = 0, j = array.length - 1; i < j; i++, j--) {
+            long swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+
+    // reverse the array
+    private static void reverse(double[] array) {
+        for (int i = 0, j = array.length - 1; i < j; i++, j--) {
+            double swap = array[i];
+            array[i] = array[j];
+            array[j] = swap;
+        }
+    }
+
+    /**
+     * Reads in a sequence of strings from standard input; sorts them with the sorter
+     * chosen for them; and prints them to standard output in ascending order.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        String[] a = StdIn.readAllStrings();
+        Sorts.sort(a);
+        for (String s : a) {
+            StdOut.println(s);
+        }
+    }
+}
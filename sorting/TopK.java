@@ -0,0 +1,154 @@
+package sorting;
+
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streaming collector of the k largest keys seen so far.
+ * <p>
+ * Keeps the current top k in a {@link MinPriorityQueue} of at most k keys, whose minimum is the bar a new key
+ * has to clear: a key that does not is rejected with a single compare, and one that does replaces the minimum
+ * in O(log k). Collecting the top k of n keys takes O(n log k) time in the worst case and O(k) extra memory,
+ * and on random input most keys take the O(1) reject path.
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+public class TopK<Key> implements Iterable<Key> {
+    private final int k;
+    private final MinPriorityQueue<Key> pq;
+    private final Comparator<Key> comparator;
+
+    /**
+     * Initializes an empty collector of the k largest keys, using the natural order.
+     *
+     * @param k the number of keys to keep
+     * @throws IllegalArgumentException if {@code k < 0}
+     */
+    public TopK(int k) {
+        this(k, null);
+    }
+
+    /**
+     * Initializes an empty collector of the k largest keys, using a comparator.
+     *
+     * @param k          the number of keys to keep
+     * @param comparator the comparator specifying the order, or null for the natural order
+     * @throws IllegalArgumentException if {@code k < 0}
+     */
+    public TopK(int k, Comparator<Key> comparator) {
+        if (k < 0) throw new IllegalArgumentException();
+        this.k = k;
+        this.comparator = comparator;
+        this.pq = comparator == null ? new MinPriorityQueue<>(k + 1) : new MinPriorityQueue<>(k + 1, comparator);
+    }
+
+    /**
+     * Returns a collector holding the k largest keys of the given ones, using the natural order.
+     *
+     * @param keys the keys to collect from
+     * @param k    the number of keys to keep
+     * @return the collector
+     */
+    public static <Key extends Comparable<Key>> TopK<Key> of(Iterable<Key> keys, int k) {
+        TopK<Key> top = new TopK<>(k);
+        top.addAll(keys);
+        return top;
+    }
+
+    public int size() {
+        return pq.size();
+    }
+
+    public boolean isEmpty() {
+        return pq.isEmpty();
+    }
+
+    /**
+     * Offers a key to the collector. It is kept if fewer than k keys are held or if it is larger than
+     * the smallest one held, which is then dropped.
+     *
+     * @param x the key to offer
+     * @return whether the key was kept
+     * @throws IllegalArgumentException if the key is null
+     */
+    public boolean add(Key x) {
+        if (x == null) throw new IllegalArgumentException();
+        if (pq.size() < k) {
+            pq.insert(x);
+            return true;
+        }
+        // fast path: the key does not beat the smallest of the top k
+        if (k == 0 || !less(pq.min(), x)) {
+            return false;
+        }
+        pq.removeMin();
+        pq.insert(x);
+        return true;
+    }
+
+    /**
+     * Offers every key to the collector.
+     *
+     * @param keys the keys to offer
+     */
+    public void addAll(Iterable<Key> keys) {
+        for (Key x : keys) {
+            add(x);
+        }
+    }
+
+    /**
+     * Returns the smallest of the keys held, which is the kth largest once k keys have been offered.
+     *
+     * @return the smallest key held
+     * @throws java.util.NoSuchElementException if no key is held
+     */
+    public Key min() {
+        return pq.min();
+    }
+
+    private boolean less(Key v, Key w) {
+        if (comparator == null) {
+            return ((Comparable<Key>) v).compareTo(w) < 0;
+        } else {
+            return comparator.compare(v, w) < 0;
+        }
+    }
+
+    /**
+     * Returns an iterator that iterates over the keys held in descending order.
+     * The iterator doesn't implement {@code remove()} since it's optional.
+     *
+     * @return an iterator that iterates over the keys in descending order
+     */
+    public Iterator<Key> iterator() {
+        List<Key> keys = new ArrayList<>(pq.size());
+        for (Key x : pq) {
+            keys.add(x);
+        }
+        Collections.reverse(keys);
+        return Collections.unmodifiableList(keys).iterator();
+    }
+
+    /**
+     * Reads in k from the command line and a sequence of strings from standard input;
+     * prints the k largest ones to standard output in descending order.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int k = Integer.parseInt(args[0]);
+        TopK<String> top = new TopK<>(k);
+        while (!StdIn.isEmpty()) {
+            top.add(StdIn.readString());
+        }
+        for (String s : top) {
+            StdOut.println(s);
+        }
+    }
+}